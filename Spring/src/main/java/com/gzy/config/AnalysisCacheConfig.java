@@ -0,0 +1,98 @@
+package com.gzy.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gzy.service.SnapshotPublishedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分析结果缓存配置
+ * <p>
+ * 分析接口的结果只在爬虫保存新快照时才会变化，因此缓存在进程内（按数量和写入时间淘汰），
+ * 收到 SnapshotPublishedEvent 时清空对应缓存。缓存键为快照版本号、方法名加参数：
+ * 清空前开始、清空后才写入的计算结果记在旧版本号下，之后的读取不会命中。
+ */
+@Slf4j
+@Configuration
+@EnableCaching
+public class AnalysisCacheConfig {
+
+    public static final String ITEM_BLOCK_ANALYSIS = "itemBlockAnalysis";
+    public static final String STATISTICS_ANALYSIS = "statisticsAnalysis";
+    public static final String ITEM_BLOCK_KEY_GENERATOR = "itemBlockKeyGenerator";
+    public static final String STATISTICS_KEY_GENERATOR = "statisticsKeyGenerator";
+
+    @Value("${csgo.cache.maximum-size:500}")
+    private long maximumSize;
+
+    @Value("${csgo.cache.expire-after-write-ms:300000}")
+    private long expireAfterWriteMs;
+
+    // 每发布一次快照加一，作为缓存键的一部分
+    private final AtomicLong itemBlockVersion = new AtomicLong();
+    private final AtomicLong statisticsVersion = new AtomicLong();
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+                .recordStats());
+        cacheManager.setCacheNames(List.of(ITEM_BLOCK_ANALYSIS, STATISTICS_ANALYSIS));
+        // 不缓存null，分析结果为空时返回的是空Map
+        cacheManager.setAllowNullValues(false);
+        return cacheManager;
+    }
+
+    @Bean(ITEM_BLOCK_KEY_GENERATOR)
+    public KeyGenerator itemBlockKeyGenerator() {
+        return versionedKeyGenerator(itemBlockVersion);
+    }
+
+    @Bean(STATISTICS_KEY_GENERATOR)
+    public KeyGenerator statisticsKeyGenerator() {
+        return versionedKeyGenerator(statisticsVersion);
+    }
+
+    /**
+     * 以调用开始时的快照版本号、方法名和全部参数作为缓存键，同一缓存中的不同方法互不冲突
+     */
+    private static KeyGenerator versionedKeyGenerator(AtomicLong version) {
+        return (target, method, params) -> {
+            Object[] elements = new Object[params.length + 2];
+            elements[0] = version.get();
+            elements[1] = method.getName();
+            System.arraycopy(params, 0, elements, 2, params.length);
+            return new SimpleKey(elements);
+        };
+    }
+
+    /**
+     * 新快照到达时先推进版本号，再清空依赖该快照的缓存
+     */
+    @EventListener
+    public void onSnapshotPublished(SnapshotPublishedEvent event) {
+        boolean itemBlock = event.getKind() == SnapshotPublishedEvent.Kind.ITEM_BLOCK;
+        (itemBlock ? itemBlockVersion : statisticsVersion).incrementAndGet();
+        String cacheName = itemBlock ? ITEM_BLOCK_ANALYSIS : STATISTICS_ANALYSIS;
+        Cache cache = cacheManager().getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+            log.debug("快照已更新，清空缓存 {}", cacheName);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.gzy.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+/**
+ * ItemBlock存储格式配置
+ * <p>
+ * item_blocks 中每 csgo.item-block.keyframe-interval 个快照写一个完整关键帧，其余快照只保存
+ * 相对关键帧变化的物品和列表顺序（delta），读取时由 ItemBlockReadCallback 还原为完整快照。
+ * 所有记录都带有所属关键帧的创建时间 keyframeTime，保证按时间清理时关键帧晚于依赖它的记录被删除。
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class ItemBlockStorageConfig {
+
+    private static final String COLLECTION = "item_blocks";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * 为旧记录补充 keyframeTime：完整快照即关键帧，心跳记录取所重复快照的时间
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateKeyframeTime() {
+        try {
+            Document missing = new Document("keyframeTime", new Document("$exists", false));
+            List<Document> pipeline = List.of(new Document("$set", new Document("keyframeTime",
+                    new Document("$ifNull", List.of("$repeatOfTime", "$createTime")))));
+            long modified = mongoTemplate.getCollection(COLLECTION).updateMany(missing, pipeline).getModifiedCount();
+            if (modified > 0) {
+                log.info("已为 {} 条ItemBlock旧记录补充关键帧时间", modified);
+            }
+        } catch (Exception e) {
+            log.error("补充ItemBlock关键帧时间时发生错误: {}", e.getMessage(), e);
+        }
+    }
+}
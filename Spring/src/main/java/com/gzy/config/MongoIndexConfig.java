@@ -0,0 +1,125 @@
+package com.gzy.config;
+
+import com.gzy.entity.ItemBlock;
+import com.gzy.entity.ItemBlockSketch;
+import com.gzy.entity.Statistics;
+import com.mongodb.ExplainVerbosity;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MongoDB索引配置
+ * <p>
+ * 启动时按实体上声明的 @Indexed / @CompoundIndex 创建索引（依赖 StatisticsStorageConfig，
+ * 保证时间序列集合先于索引创建），应用就绪后对各仓库查询执行 explain()，出现全表扫描时告警。
+ */
+@Slf4j
+@Configuration
+@DependsOn("statisticsStorageConfig")
+@RequiredArgsConstructor
+public class MongoIndexConfig {
+
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(ItemBlock.class, Statistics.class, ItemBlockSketch.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * 创建实体声明的索引（已存在时不会重复创建）
+     */
+    @PostConstruct
+    public void ensureIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        for (Class<?> entityClass : INDEXED_ENTITIES) {
+            try {
+                IndexOperations indexOps = mongoTemplate.indexOps(entityClass);
+                resolver.resolveIndexFor(entityClass).forEach(indexOps::createIndex);
+                log.info("已确认集合 {} 的索引", mongoTemplate.getCollectionName(entityClass));
+            } catch (Exception e) {
+                log.error("创建集合 {} 的索引时发生错误: {}", mongoTemplate.getCollectionName(entityClass), e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 对仓库的查询形态执行 explain()，执行计划包含 COLLSCAN 时告警
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyQueryPlans() {
+        Date now = new Date();
+        Date dayAgo = new Date(now.getTime() - 24 * 3600 * 1000L);
+        Document latest = new Document("createTime", -1);
+        Document between = new Document("createTime", new Document("$gt", dayAgo).append("$lt", now));
+        Document seek = new Document("$or", List.of(
+                new Document("createTime", new Document("$lt", now)),
+                new Document("createTime", now).append("_id", new Document("$lt", new ObjectId()))));
+        Document seekSort = new Document("createTime", -1).append("_id", -1);
+
+        String itemBlocks = mongoTemplate.getCollectionName(ItemBlock.class);
+        String statistics = mongoTemplate.getCollectionName(Statistics.class);
+
+        int warnings = 0;
+        warnings += verify("ItemBlock最新快照", itemBlocks, new Document(), latest, 1);
+        warnings += verify("ItemBlock时间范围查询", itemBlocks, between, null, 0);
+        warnings += verify("ItemBlock按成功状态查询", itemBlocks, new Document("success", true), null, 0);
+        warnings += verify("ItemBlock游标分页", itemBlocks, seek, seekSort, 11);
+        warnings += verify("Statistics最新采样", statistics, new Document(), latest, 1);
+        warnings += verify("Statistics时间范围查询", statistics, between, null, 0);
+        warnings += verify("Statistics游标分页", statistics, seek, seekSort, 11);
+        if (warnings == 0) {
+            log.info("查询计划自检完成，所有查询均使用索引");
+        }
+    }
+
+    private int verify(String name, String collection, Document filter, Document sort, int limit) {
+        try {
+            Document plan = mongoTemplate.getCollection(collection).find(filter).sort(sort).limit(limit)
+                    .explain(ExplainVerbosity.QUERY_PLANNER);
+            if (containsCollectionScan(plan)) {
+                log.warn("查询 [{}] 在集合 {} 上执行全表扫描(COLLSCAN)，请检查索引", name, collection);
+                return 1;
+            }
+        } catch (Exception e) {
+            log.error("查询 [{}] 的执行计划检查失败: {}", name, e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * 递归查找执行计划中的 COLLSCAN 阶段（时间序列集合的计划嵌套在 $_internalUnpackBucket 等阶段中）
+     */
+    private static boolean containsCollectionScan(Object node) {
+        if (node instanceof Map<?, ?> map) {
+            if ("COLLSCAN".equals(map.get("stage"))) {
+                return true;
+            }
+            // 只检查胜出的计划
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!"rejectedPlans".equals(entry.getKey()) && containsCollectionScan(entry.getValue())) {
+                    return true;
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object element : list) {
+                if (containsCollectionScan(element)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
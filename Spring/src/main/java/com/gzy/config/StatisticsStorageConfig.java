@@ -0,0 +1,66 @@
+package com.gzy.config;
+
+import com.gzy.entity.Statistics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+/**
+ * Statistics存储模式配置
+ * <p>
+ * timeseries 模式下 steam_statistics 创建为MongoDB时间序列集合，以 createTime 为时间字段、
+ * 秒级粒度，MongoDB会将30秒一次的采样按小时打包存储，按时间范围查询只需读取对应的小时桶。
+ * standard 模式保持普通集合，每次采样一个文档。
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class StatisticsStorageConfig {
+
+    public static final String MODE_TIMESERIES = "timeseries";
+    public static final String MODE_STANDARD = "standard";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${csgo.statistics.storage-mode:" + MODE_TIMESERIES + "}")
+    private String storageMode;
+
+    /**
+     * 在爬虫首次写入前确保集合以配置的模式创建
+     */
+    @PostConstruct
+    public void initStatisticsCollection() {
+        String collectionName = mongoTemplate.getCollectionName(Statistics.class);
+        try {
+            if (!MODE_TIMESERIES.equalsIgnoreCase(storageMode)) {
+                log.info("Statistics存储模式: {}，使用普通集合 {}", MODE_STANDARD, collectionName);
+                return;
+            }
+
+            Document collectionInfo = mongoTemplate.getDb().listCollections()
+                    .filter(new Document("name", collectionName))
+                    .first();
+
+            if (collectionInfo == null) {
+                mongoTemplate.createCollection(collectionName,
+                        CollectionOptions.timeSeries("createTime", options -> options.granularity(Granularity.SECONDS)));
+                log.info("已创建时间序列集合 {}（timeField=createTime, granularity=seconds）", collectionName);
+                return;
+            }
+
+            if (!MODE_TIMESERIES.equals(collectionInfo.getString("type"))) {
+                // 已存在的普通集合无法原地转换为时间序列集合，需要导出后删除集合再重新导入
+                log.warn("集合 {} 已作为普通集合存在，继续以普通集合存储；如需按小时桶存储，请导出数据、删除集合后重启再导入",
+                        collectionName);
+            }
+        } catch (Exception e) {
+            log.error("初始化Statistics集合时发生错误: {}", e.getMessage(), e);
+        }
+    }
+}
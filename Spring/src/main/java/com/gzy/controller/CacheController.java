@@ -0,0 +1,57 @@
+package com.gzy.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.gzy.service.ResponseBodyCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cache")
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final CacheManager cacheManager;
+    private final ResponseBodyCache responseBodyCache;
+
+    /**
+     * 获取各分析缓存的命中率与淘汰统计，用于调整缓存容量
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<List<Map<String, Object>>> getStats() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            if (!(cacheManager.getCache(name) instanceof CaffeineCache cache)) {
+                continue;
+            }
+            CacheStats stats = cache.getNativeCache().stats();
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("name", name);
+            item.put("size", cache.getNativeCache().estimatedSize());
+            item.put("hitCount", stats.hitCount());
+            item.put("missCount", stats.missCount());
+            item.put("hitRate", stats.hitRate());
+            item.put("evictionCount", stats.evictionCount());
+            item.put("averageLoadPenaltyMs", stats.averageLoadPenalty() / 1_000_000.0);
+            result.add(item);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * 获取预序列化响应缓存的统计：序列化次数、平均每次序列化与平均每个请求的序列化耗时
+     */
+    @GetMapping("/responses")
+    public ResponseEntity<Map<String, Object>> getResponseStats() {
+        return ResponseEntity.ok(responseBodyCache.getStats());
+    }
+}
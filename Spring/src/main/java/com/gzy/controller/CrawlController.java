@@ -0,0 +1,27 @@
+package com.gzy.controller;
+
+import com.gzy.crawler.CrawlScheduler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/crawl")
+@RequiredArgsConstructor
+public class CrawlController {
+
+    private final CrawlScheduler crawlScheduler;
+
+    /**
+     * 获取各抓取通道的运行状态与调度延迟
+     */
+    @GetMapping("/lanes")
+    public ResponseEntity<List<Map<String, Object>>> getLanes() {
+        return ResponseEntity.ok(crawlScheduler.getLaneStatus());
+    }
+}
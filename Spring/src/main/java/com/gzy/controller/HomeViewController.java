@@ -1,16 +1,17 @@
 package com.gzy.controller;
 
-import com.gzy.entity.ItemBlock;
-import com.gzy.entity.Statistics;
 import com.gzy.service.HomeViewService;
+import com.gzy.service.LatestSnapshotStore;
+import com.gzy.service.ResponseBodyCache;
+import com.gzy.service.SnapshotVersion;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -20,27 +21,45 @@ public class HomeViewController {
     @Autowired
     private HomeViewService homeViewService;
 
-    @GetMapping("/home")
-    public ResponseEntity<?> getHomeData() {
-        List<ItemBlock> itemBlocks = homeViewService.findRecentItemBlocks();
-        Statistics statistics = homeViewService.findLatestStatistics();
+    @Autowired
+    private LatestSnapshotStore latestSnapshotStore;
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("itemBlocks", itemBlocks);
-        response.put("statistics", statistics);
+    @Autowired
+    private ResponseBodyCache responseBodyCache;
 
-        return ResponseEntity.ok(response);
+    @GetMapping("/home")
+    public ResponseEntity<?> getHomeData(WebRequest webRequest) {
+        SnapshotVersion version = SnapshotVersion.combine(
+                latestSnapshotStore.getItemBlockVersion(), latestSnapshotStore.getStatisticsVersion());
+        if (SnapshotVersion.notModified(webRequest, version)) {
+            return null;
+        }
+        return responseBodyCache.render("home", version, webRequest, () -> {
+            Map<String, Object> response = new HashMap<>();
+            response.put("itemBlocks", homeViewService.findRecentItemBlocks());
+            response.put("statistics", homeViewService.findLatestStatistics());
+            return response;
+        });
     }
 
     @GetMapping("/itemblocks")
-    public ResponseEntity<?> getItemBlocks() {
-        List<ItemBlock> itemBlocks = homeViewService.findRecentItemBlocks();
-        return ResponseEntity.ok(itemBlocks);
+    public ResponseEntity<?> getItemBlocks(WebRequest webRequest) {
+        SnapshotVersion version = latestSnapshotStore.getItemBlockVersion();
+        if (SnapshotVersion.notModified(webRequest, version)) {
+            return null;
+        }
+        return responseBodyCache.render("itemblocks", version, webRequest, homeViewService::findRecentItemBlocks);
     }
 
     @GetMapping("/statistics")
-    public ResponseEntity<?> getStatistics() {
-        Statistics statistics = homeViewService.findLatestStatistics();
-        return ResponseEntity.ok(statistics);
+    public ResponseEntity<?> getStatistics(WebRequest webRequest) {
+        SnapshotVersion version = latestSnapshotStore.getStatisticsVersion();
+        if (SnapshotVersion.notModified(webRequest, version)) {
+            return null;
+        }
+        if (version == null) {
+            return ResponseEntity.ok(null);
+        }
+        return responseBodyCache.render("statistics", version, webRequest, homeViewService::findLatestStatistics);
     }
 }
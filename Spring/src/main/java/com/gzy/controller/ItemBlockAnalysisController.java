@@ -1,14 +1,22 @@
 package com.gzy.controller;
 
+import com.gzy.entity.ItemBlockAnalysis;
 import com.gzy.service.ItemBlockService;
+import com.gzy.service.ItemBlockSketchService;
+import com.gzy.service.LatestSnapshotStore;
+import com.gzy.service.SnapshotVersion;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -18,12 +26,17 @@ import java.util.Map;
 public class ItemBlockAnalysisController {
 
     private final ItemBlockService itemBlockService;
+    private final LatestSnapshotStore latestSnapshotStore;
+    private final ItemBlockSketchService itemBlockSketchService;
 
     /**
      * 获取数据总览信息
      */
     @GetMapping("/overview")
-    public ResponseEntity<Map<String, Object>> getOverview() {
+    public ResponseEntity<Map<String, Object>> getOverview(WebRequest webRequest) {
+        if (SnapshotVersion.notModified(webRequest, latestSnapshotStore.getItemBlockVersion())) {
+            return null;
+        }
         Map<String, Object> overview = itemBlockService.getItemBlockOverview();
         return ResponseEntity.ok(overview);
     }
@@ -32,7 +45,10 @@ public class ItemBlockAnalysisController {
      * 获取热门物品涨跌幅分析
      */
     @GetMapping("/hot-rise-fall")
-    public ResponseEntity<Map<String, Object>> getHotItemsRiseFall() {
+    public ResponseEntity<Map<String, Object>> getHotItemsRiseFall(WebRequest webRequest) {
+        if (SnapshotVersion.notModified(webRequest, latestSnapshotStore.getItemBlockVersion())) {
+            return null;
+        }
         Map<String, Object> analysis = itemBlockService.analyzeHotItemsRiseFall();
         return ResponseEntity.ok(analysis);
     }
@@ -41,10 +57,13 @@ public class ItemBlockAnalysisController {
      * 获取物品类型涨跌幅分析
      */
     @GetMapping("/item-type-rise-fall/{level}")
-    public ResponseEntity<Map<String, Object>> getItemTypeRiseFall(@PathVariable int level) {
+    public ResponseEntity<Map<String, Object>> getItemTypeRiseFall(@PathVariable int level, WebRequest webRequest) {
         if (level < 1 || level > 3) {
             return ResponseEntity.badRequest().build();
         }
+        if (SnapshotVersion.notModified(webRequest, latestSnapshotStore.getItemBlockVersion())) {
+            return null;
+        }
 
         Map<String, Object> analysis = itemBlockService.analyzeItemTypeRiseFall(level);
         return ResponseEntity.ok(analysis);
@@ -54,7 +73,10 @@ public class ItemBlockAnalysisController {
      * 获取指数分析
      */
     @GetMapping("/index-analysis/{category}")
-    public ResponseEntity<Map<String, Object>> getIndexAnalysis(@PathVariable String category) {
+    public ResponseEntity<Map<String, Object>> getIndexAnalysis(@PathVariable String category, WebRequest webRequest) {
+        if (SnapshotVersion.notModified(webRequest, latestSnapshotStore.getItemBlockVersion())) {
+            return null;
+        }
         Map<String, Object> analysis = itemBlockService.analyzeItemIndex(category);
 
         if (analysis.isEmpty()) {
@@ -65,11 +87,26 @@ public class ItemBlockAnalysisController {
     }
 
     /**
-     * 获取物品价格趋势数据（最近7天）
+     * 获取物品价格趋势数据（默认最近7天，最长365天）；format=columnar 时返回并列数组，
+     * 请求头 Accept: application/cbor 时以CBOR二进制编码返回
      */
     @GetMapping("/trend/{itemName}")
-    public ResponseEntity<Map<String, Object>> getItemPriceTrend(@PathVariable String itemName) {
-        Map<String, Object> trendData = itemBlockService.getItemPriceTrend(itemName);
+    public ResponseEntity<Map<String, Object>> getItemPriceTrend(
+            @PathVariable String itemName,
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "points") String format,
+            WebRequest webRequest) {
+        if (days < 1 || days > 365 || !("points".equals(format) || "columnar".equals(format))) {
+            return ResponseEntity.badRequest().build();
+        }
+        // 同一URL按 format 和 Accept 返回不同表示，ETag 区分表示
+        if (SnapshotVersion.notModified(webRequest, latestSnapshotStore.getItemBlockVersion(), format)) {
+            return null;
+        }
+
+        Map<String, Object> trendData = "columnar".equals(format)
+                ? itemBlockService.getItemPriceTrendColumnar(itemName, days)
+                : itemBlockService.getItemPriceTrend(itemName, days);
 
         if (trendData.isEmpty()) {
             return ResponseEntity.notFound().build();
@@ -77,4 +114,42 @@ public class ItemBlockAnalysisController {
 
         return ResponseEntity.ok(trendData);
     }
-}
\ No newline at end of file
+
+    /**
+     * 按快照ID获取历史分析结果
+     */
+    @GetMapping("/snapshot/{snapshotId}")
+    public ResponseEntity<ItemBlockAnalysis> getSnapshotAnalysis(@PathVariable String snapshotId) {
+        ItemBlockAnalysis analysis = itemBlockService.getAnalysisBySnapshotId(snapshotId);
+        if (analysis == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(analysis);
+    }
+
+    /**
+     * 获取最近days天某分类涨跌幅或指数的分位数与直方图（合并每小时的分位数草图）
+     */
+    @GetMapping("/distribution/{category}")
+    public ResponseEntity<Map<String, Object>> getDistribution(
+            @PathVariable String category,
+            @RequestParam(defaultValue = ItemBlockSketchService.METRIC_RISE_FALL_RATE) String metric,
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "0.1,0.25,0.5,0.75,0.9,0.99") List<Double> quantiles,
+            @RequestParam(defaultValue = "20") int bins) {
+        String normalizedCategory = category.toLowerCase().replace("itemtype", "");
+        if (!ItemBlockSketchService.CATEGORIES.contains(normalizedCategory)
+                || !(ItemBlockSketchService.METRIC_RISE_FALL_RATE.equals(metric)
+                || ItemBlockSketchService.METRIC_INDEX.equals(metric))
+                || days < 1 || days > 365 || bins < 1 || bins > 200
+                || quantiles.isEmpty() || quantiles.size() > 20
+                || quantiles.stream().anyMatch(q -> q == null || q < 0 || q > 1)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        LocalDateTime end = LocalDateTime.now();
+        Map<String, Object> distribution = itemBlockSketchService.getDistribution(normalizedCategory, metric,
+                end.minusDays(days), end, quantiles, bins);
+        return ResponseEntity.ok(distribution);
+    }
+}
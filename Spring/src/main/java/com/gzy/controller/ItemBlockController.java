@@ -1,18 +1,30 @@
 package com.gzy.controller;
 
+import com.gzy.crawler.CrawlScheduler;
 import com.gzy.crawler.ItemBlockCrawler;
 import com.gzy.entity.ItemBlock;
 import com.gzy.repository.ItemBlockRepository;
+import com.gzy.service.ItemBlockService;
+import com.gzy.service.KeysetPaginationService;
+import com.gzy.service.LatestSnapshotStore;
+import com.gzy.service.ResponseBodyCache;
+import com.gzy.service.SnapshotVersion;
+import com.gzy.service.StreamingExportService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @RestController
@@ -21,18 +33,27 @@ import java.util.List;
 public class ItemBlockController {
 
     private final ItemBlockRepository itemBlockRepository;
-    private final ItemBlockCrawler itemBlockCrawler;
+    private final CrawlScheduler crawlScheduler;
+    private final LatestSnapshotStore latestSnapshotStore;
+    private final ResponseBodyCache responseBodyCache;
+    private final StreamingExportService streamingExportService;
+    private final KeysetPaginationService keysetPaginationService;
+    private final ItemBlockService itemBlockService;
 
     /**
-     * 获取最新的ItemBlock数据
+     * 获取最新的ItemBlock数据，支持条件请求，响应体按快照预序列化
      */
     @GetMapping("/latest")
-    public ResponseEntity<ItemBlock> getLatest() {
-        ItemBlock latest = itemBlockRepository.findFirstByOrderByCreateTimeDesc();
+    public ResponseEntity<byte[]> getLatest(WebRequest webRequest) {
+        ItemBlock latest = latestSnapshotStore.getLatestItemBlock();
         if (latest == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(latest);
+        SnapshotVersion version = SnapshotVersion.of(latest);
+        if (SnapshotVersion.notModified(webRequest, version)) {
+            return null;
+        }
+        return responseBodyCache.render("item-block-latest", version, webRequest, () -> latest);
     }
 
     /**
@@ -50,6 +71,28 @@ public class ItemBlockController {
         return ResponseEntity.ok(itemBlocks);
     }
 
+    /**
+     * 游标分页获取ItemBlock数据，按创建时间倒序；cursor 为上一页返回的 nextCursor，withTotal=false 时不执行count
+     */
+    @GetMapping("/list/seek")
+    public ResponseEntity<Map<String, Object>> getListBySeek(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        if (size < 1 || size > 1000) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            Map<String, Object> result = keysetPaginationService.page(ItemBlock.class, cursor, size, withTotal,
+                    ItemBlock::getId, ItemBlock::getCreateTime);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            log.error("游标分页参数错误: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * 根据时间范围获取ItemBlock数据
      */
@@ -71,6 +114,31 @@ public class ItemBlockController {
         }
     }
 
+    /**
+     * 流式导出时间范围内的数据，format=ndjson（默认）每行一个文档，format=json 输出分块写出的JSON数组
+     */
+    @GetMapping("/range/stream")
+    public ResponseEntity<StreamingResponseBody> streamByTimeRange(
+            @RequestParam String startTime,
+            @RequestParam String endTime,
+            @RequestParam(defaultValue = "ndjson") String format) {
+
+        LocalDateTime start;
+        LocalDateTime end;
+        try {
+            start = LocalDateTime.parse(startTime);
+            end = LocalDateTime.parse(endTime);
+        } catch (Exception e) {
+            log.error("解析时间参数失败: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        boolean jsonArray = "json".equalsIgnoreCase(format);
+        return ResponseEntity.ok()
+                .contentType(jsonArray ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_NDJSON)
+                .body(streamingExportService.exportByTimeRange(ItemBlock.class, start, end, jsonArray));
+    }
+
     /**
      * 根据成功状态获取数据
      */
@@ -97,8 +165,11 @@ public class ItemBlockController {
     @PostMapping("/crawl")
     public ResponseEntity<String> manualCrawl() {
         try {
-            itemBlockCrawler.manualCrawl();
-            return ResponseEntity.ok("ItemBlock数据抓取已触发");
+            return switch (crawlScheduler.trigger(ItemBlockCrawler.SOURCE_NAME)) {
+                case STARTED -> ResponseEntity.ok("ItemBlock数据抓取已触发");
+                case BUSY -> ResponseEntity.status(HttpStatus.CONFLICT).body("上一次抓取尚未完成");
+                case NOT_FOUND -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("抓取数据源未注册");
+            };
         } catch (Exception e) {
             log.error("手动触发ItemBlock抓取失败: {}", e.getMessage());
             return ResponseEntity.internalServerError().body("抓取失败: " + e.getMessage());
@@ -110,7 +181,7 @@ public class ItemBlockController {
      */
     @GetMapping("/category/{categoryName}")
     public ResponseEntity<Object> getLatestCategory(@PathVariable String categoryName) {
-        ItemBlock latest = itemBlockRepository.findFirstByOrderByCreateTimeDesc();
+        ItemBlock latest = latestSnapshotStore.getLatestItemBlock();
         if (latest == null || latest.getData() == null) {
             return ResponseEntity.notFound().build();
         }
@@ -138,7 +209,7 @@ public class ItemBlockController {
             @PathVariable String categoryName,
             @PathVariable String listType) {
 
-        ItemBlock latest = itemBlockRepository.findFirstByOrderByCreateTimeDesc();
+        ItemBlock latest = latestSnapshotStore.getLatestItemBlock();
         if (latest == null || latest.getData() == null) {
             return ResponseEntity.notFound().build();
         }
@@ -170,12 +241,11 @@ public class ItemBlockController {
     }
 
     /**
-     * 删除所有数据（谨慎使用）
+     * 删除所有数据及其派生的价格序列、分析结果、分位数草图和物品汇总（谨慎使用）
      */
     @DeleteMapping("/all")
     public ResponseEntity<String> deleteAll() {
-        long count = itemBlockRepository.count();
-        itemBlockRepository.deleteAll();
+        long count = itemBlockService.deleteAll();
         return ResponseEntity.ok("已删除 " + count + " 条ItemBlock记录");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package com.gzy.controller;
+
+import com.gzy.service.SnapshotStreamService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+@RestController
+@RequestMapping("/api/stream")
+@RequiredArgsConstructor
+public class SnapshotStreamController {
+
+    private final SnapshotStreamService snapshotStreamService;
+
+    /**
+     * 订阅新快照推送（SSE），事件类型为 item-block 或 statistics，替代前端定时轮询
+     */
+    @GetMapping(value = "/snapshots", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamSnapshots() {
+        return snapshotStreamService.subscribe();
+    }
+}
@@ -1,13 +1,23 @@
 package com.gzy.controller;
 
+import com.gzy.crawler.CrawlScheduler;
 import com.gzy.crawler.StatisticsCrawler;
 import com.gzy.entity.Statistics;
+import com.gzy.service.KeysetPaginationService;
+import com.gzy.service.LatestSnapshotStore;
+import com.gzy.service.ResponseBodyCache;
+import com.gzy.service.SnapshotVersion;
 import com.gzy.service.StatisticsService;
+import com.gzy.service.StreamingExportService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -19,17 +29,27 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class StatisticsController {
 
-    private final StatisticsCrawler steamdtCrawler;
+    private final CrawlScheduler crawlScheduler;
     private final StatisticsService statisticsService;
+    private final ResponseBodyCache responseBodyCache;
+    private final StreamingExportService streamingExportService;
+    private final KeysetPaginationService keysetPaginationService;
+    private final LatestSnapshotStore latestSnapshotStore;
 
     /**
-     * 获取最新的统计数据
+     * 获取最新的统计数据，支持条件请求，响应体按快照预序列化
      */
     @GetMapping("/latest")
-    public ResponseEntity<Statistics> getLatest() {
-        return statisticsService.getLatest()
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<byte[]> getLatest(WebRequest webRequest) {
+        Statistics latest = statisticsService.getLatest().orElse(null);
+        if (latest == null) {
+            return ResponseEntity.notFound().build();
+        }
+        SnapshotVersion version = SnapshotVersion.of(latest);
+        if (SnapshotVersion.notModified(webRequest, version)) {
+            return null;
+        }
+        return responseBodyCache.render("summary-latest", version, webRequest, () -> latest);
     }
 
     /**
@@ -43,6 +63,28 @@ public class StatisticsController {
         return ResponseEntity.ok(summaries);
     }
 
+    /**
+     * 游标分页获取Statistics数据，按创建时间倒序；cursor 为上一页返回的 nextCursor，withTotal=false 时不执行count
+     */
+    @GetMapping("/list/seek")
+    public ResponseEntity<Map<String, Object>> getListBySeek(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        if (size < 1 || size > 1000) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            Map<String, Object> result = keysetPaginationService.page(Statistics.class, cursor, size, withTotal,
+                    Statistics::getId, Statistics::getCreateTime);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            log.error("游标分页参数错误: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * 根据时间范围获取统计数据
      */
@@ -64,6 +106,31 @@ public class StatisticsController {
         }
     }
 
+    /**
+     * 流式导出时间范围内的数据，format=ndjson（默认）每行一个文档，format=json 输出分块写出的JSON数组
+     */
+    @GetMapping("/range/stream")
+    public ResponseEntity<StreamingResponseBody> streamByTimeRange(
+            @RequestParam String startTime,
+            @RequestParam String endTime,
+            @RequestParam(defaultValue = "ndjson") String format) {
+
+        LocalDateTime start;
+        LocalDateTime end;
+        try {
+            start = LocalDateTime.parse(startTime);
+            end = LocalDateTime.parse(endTime);
+        } catch (Exception e) {
+            log.error("解析时间参数失败: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        boolean jsonArray = "json".equalsIgnoreCase(format);
+        return ResponseEntity.ok()
+                .contentType(jsonArray ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_NDJSON)
+                .body(streamingExportService.exportByTimeRange(Statistics.class, start, end, jsonArray));
+    }
+
     /**
      * 获取数据库中的记录总数
      */
@@ -79,8 +146,11 @@ public class StatisticsController {
     @PostMapping("/crawl")
     public ResponseEntity<String> manualCrawl() {
         try {
-            steamdtCrawler.manualCrawl();
-            return ResponseEntity.ok("数据抓取已触发");
+            return switch (crawlScheduler.trigger(StatisticsCrawler.SOURCE_NAME)) {
+                case STARTED -> ResponseEntity.ok("数据抓取已触发");
+                case BUSY -> ResponseEntity.status(HttpStatus.CONFLICT).body("上一次抓取尚未完成");
+                case NOT_FOUND -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("抓取数据源未注册");
+            };
         } catch (Exception e) {
             log.error("手动触发抓取失败: {}", e.getMessage());
             return ResponseEntity.internalServerError().body("抓取失败: " + e.getMessage());
@@ -89,11 +159,26 @@ public class StatisticsController {
 
     /**
      * 获取专业统计数据（趋势数据包）- 专用接口，减轻前端压力
+     * 每条序列降采样到不超过 maxPoints 个点；format=columnar 时每条序列为并列数组，
+     * 请求头 Accept: application/cbor 时以CBOR二进制编码返回；支持按表示区分的条件请求
      */
     @GetMapping("/pro-stats/{days}")
-    public ResponseEntity<Map<String, Object>> getProStatistics(@PathVariable int days) {
+    public ResponseEntity<Map<String, Object>> getProStatistics(
+            @PathVariable int days,
+            @RequestParam(defaultValue = "1000") int maxPoints,
+            @RequestParam(defaultValue = "points") String format,
+            WebRequest webRequest) {
+        if (days < 1 || maxPoints < 3 || maxPoints > 10000
+                || !("points".equals(format) || "columnar".equals(format))) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (SnapshotVersion.notModified(webRequest, latestSnapshotStore.getStatisticsVersion(), format)) {
+            return null;
+        }
         try {
-            Map<String, Object> proStatsData = statisticsService.getProStatistics(days);
+            Map<String, Object> proStatsData = "columnar".equals(format)
+                    ? statisticsService.getProStatisticsColumnar(days, maxPoints)
+                    : statisticsService.getProStatistics(days, maxPoints);
             return ResponseEntity.ok(proStatsData);
         } catch (Exception e) {
             log.error("获取专业统计数据失败: {}", e.getMessage());
@@ -115,6 +200,9 @@ public class StatisticsController {
             
             Map<String, Object> periodData = statisticsService.getStatisticsByPeriod(start, end, interval);
             return ResponseEntity.ok(periodData);
+        } catch (IllegalArgumentException e) {
+            log.error("获取周期统计数据参数错误: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("获取周期统计数据失败: {}", e.getMessage());
             return ResponseEntity.internalServerError().build();
@@ -130,4 +218,4 @@ public class StatisticsController {
         statisticsService.deleteAll();
         return ResponseEntity.ok("已删除 " + count + " 条记录");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,35 @@
+package com.gzy.crawler;
+
+import lombok.Data;
+
+/**
+ * 上游接口的响应外层结构
+ */
+@Data
+public class ApiResponse<T> {
+
+    // 成功状态
+    private Boolean success;
+
+    // 错误代码
+    private Integer errorCode;
+
+    // 错误信息
+    private String errorMsg;
+
+    // 错误数据
+    private Object errorData;
+
+    // 错误代码字符串
+    private String errorCodeStr;
+
+    // 业务数据
+    private T data;
+
+    /**
+     * 响应是否成功（success 为 true 且错误代码为空或0）
+     */
+    public boolean isSucceeded() {
+        return Boolean.TRUE.equals(success) && (errorCode == null || errorCode == 0);
+    }
+}
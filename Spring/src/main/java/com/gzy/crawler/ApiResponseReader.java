@@ -0,0 +1,68 @@
+package com.gzy.crawler;
+
+import com.alibaba.fastjson2.JSONReader;
+
+import java.util.function.Function;
+
+/**
+ * 上游响应的流式读取工具
+ * <p>
+ * 直接在响应字节上按字段顺序读取并绑定到实体，不构建中间的 JSONObject 树，也不复制为字符串。
+ */
+public final class ApiResponseReader {
+
+    private ApiResponseReader() {
+    }
+
+    /**
+     * 读取响应外层结构，data 字段交给 dataReader 读取
+     */
+    public static <T> ApiResponse<T> read(byte[] bytes, Function<JSONReader, T> dataReader) {
+        ApiResponse<T> response = new ApiResponse<>();
+        try (JSONReader reader = JSONReader.of(bytes)) {
+            if (!reader.nextIfObjectStart()) {
+                throw new IllegalArgumentException("响应不是JSON对象");
+            }
+            while (!reader.nextIfObjectEnd()) {
+                switch (reader.readFieldName()) {
+                    case "success" -> response.setSuccess(reader.readBool());
+                    case "errorCode" -> response.setErrorCode(reader.readInt32());
+                    case "errorMsg" -> response.setErrorMsg(reader.readString());
+                    case "errorData" -> response.setErrorData(reader.readAny());
+                    case "errorCodeStr" -> response.setErrorCodeStr(reader.readString());
+                    case "data" -> response.setData(reader.nextIfNull() ? null : dataReader.apply(reader));
+                    default -> reader.skipValue();
+                }
+            }
+        }
+        return response;
+    }
+
+    /**
+     * 逐个读取对象的字段，fieldReader 负责读取字段值；值为null的对象返回false
+     */
+    public static boolean readObject(JSONReader reader, FieldReader fieldReader) {
+        if (reader.nextIfNull()) {
+            return false;
+        }
+        if (!reader.nextIfObjectStart()) {
+            reader.skipValue();
+            return false;
+        }
+        while (!reader.nextIfObjectEnd()) {
+            String name = reader.readFieldName();
+            if (!fieldReader.read(name)) {
+                reader.skipValue();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 字段读取回调，未处理的字段返回false以跳过
+     */
+    @FunctionalInterface
+    public interface FieldReader {
+        boolean read(String name);
+    }
+}
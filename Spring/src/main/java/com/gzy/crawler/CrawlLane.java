@@ -0,0 +1,170 @@
+package com.gzy.crawler;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个数据源的抓取通道
+ * <p>
+ * 调度点固定为 anchor + k * period，抖动只作用于单次调度点、不会累积，
+ * 因此上游变慢时采样节奏不会漂移；某次抓取超时也只影响本通道。
+ */
+@Slf4j
+class CrawlLane {
+
+    @Getter
+    private final CrawlSource source;
+    private final long periodMs;
+    private final long jitterMs;
+    private final MissedTickPolicy policy;
+    private final int maxCatchUp;
+    private final ScheduledExecutorService executor;
+
+    private long anchor;
+    private long tickIndex;
+
+    private final AtomicBoolean inFlight = new AtomicBoolean(false);
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong caughtUp = new AtomicLong();
+    private volatile long nextTickAt;
+    private volatile long lastScheduledAt;
+    private volatile long lastStartedAt;
+    private volatile long lastDurationMs;
+    private volatile long lastLagMs;
+    private volatile long maxLagMs;
+
+    CrawlLane(CrawlSource source, long periodMs, long jitterMs, MissedTickPolicy policy, int maxCatchUp,
+            ScheduledExecutorService executor) {
+        this.source = source;
+        this.periodMs = periodMs;
+        this.jitterMs = Math.min(jitterMs, periodMs / 2);
+        this.policy = policy;
+        this.maxCatchUp = maxCatchUp;
+        this.executor = executor;
+    }
+
+    void start(long initialDelayMs) {
+        anchor = System.currentTimeMillis() + initialDelayMs;
+        tickIndex = -1;
+        scheduleNext();
+    }
+
+    /**
+     * 调度下一个调度点；调度线程本身被延误时，跳过已经过去的调度点
+     */
+    private void scheduleNext() {
+        long now = System.currentTimeMillis();
+        long next = tickIndex + 1;
+        long due = (now - anchor) / periodMs;
+        if (now > anchor && due > next) {
+            long missed = due - next;
+            onMissed(missed);
+            next = due;
+        }
+        tickIndex = next;
+
+        long jitter = jitterMs > 0 ? ThreadLocalRandom.current().nextLong(-jitterMs, jitterMs + 1) : 0;
+        long scheduledAt = anchor + tickIndex * periodMs + jitter;
+        nextTickAt = scheduledAt;
+        executor.schedule(() -> tick(scheduledAt), Math.max(0, scheduledAt - now), TimeUnit.MILLISECONDS);
+    }
+
+    private void tick(long scheduledAt) {
+        try {
+            scheduleNext();
+            lastScheduledAt = scheduledAt;
+            lastLagMs = Math.max(0, System.currentTimeMillis() - scheduledAt);
+            maxLagMs = Math.max(maxLagMs, lastLagMs);
+
+            if (!run()) {
+                onMissed(1);
+            }
+        } catch (Exception e) {
+            log.error("抓取通道 {} 调度时发生错误: {}", source.getSourceName(), e.getMessage(), e);
+        }
+    }
+
+    private void onMissed(long count) {
+        if (policy == MissedTickPolicy.CATCH_UP) {
+            int accepted = (int) Math.min(count, maxCatchUp - pending.get());
+            if (accepted > 0) {
+                pending.addAndGet(accepted);
+            }
+            skipped.addAndGet(count - Math.max(accepted, 0));
+        } else {
+            skipped.addAndGet(count);
+        }
+        log.warn("抓取通道 {} 错过 {} 个调度点，策略: {}", source.getSourceName(), count, policy);
+    }
+
+    /**
+     * 通道空闲时发起一次抓取，返回是否已发起
+     */
+    private boolean run() {
+        if (!inFlight.compareAndSet(false, true)) {
+            return false;
+        }
+        long startedAt = System.currentTimeMillis();
+        lastStartedAt = startedAt;
+        runs.incrementAndGet();
+
+        source.crawl()
+                .hasElement()
+                .onErrorReturn(false)
+                .doFinally(signal -> {
+                    lastDurationMs = System.currentTimeMillis() - startedAt;
+                    inFlight.set(false);
+                    if (pending.getAndUpdate(value -> Math.max(0, value - 1)) > 0) {
+                        caughtUp.incrementAndGet();
+                        executor.execute(this::run);
+                    }
+                })
+                .subscribe(success -> {
+                    if (!success) {
+                        failed.incrementAndGet();
+                    }
+                });
+        return true;
+    }
+
+    /**
+     * 手动触发，与调度共用通道的并发保护
+     */
+    boolean trigger() {
+        return run();
+    }
+
+    Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("source", source.getSourceName());
+        result.put("periodMs", periodMs);
+        result.put("jitterMs", jitterMs);
+        result.put("missedTickPolicy", policy);
+        result.put("inFlight", inFlight.get());
+        result.put("pendingCatchUp", pending.get());
+        result.put("runs", runs.get());
+        result.put("failed", failed.get());
+        result.put("skipped", skipped.get());
+        result.put("caughtUp", caughtUp.get());
+        result.put("lastScheduledAt", lastScheduledAt);
+        result.put("lastStartedAt", lastStartedAt);
+        result.put("lastLagMs", lastLagMs);
+        result.put("maxLagMs", maxLagMs);
+        result.put("lastDurationMs", lastDurationMs);
+        result.put("nextTickAt", nextTickAt);
+        return result;
+    }
+}
@@ -0,0 +1,116 @@
+package com.gzy.crawler;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * 抓取调度器
+ * <p>
+ * 每个数据源一个独立通道（单线程调度器），周期、抖动和错过调度点的策略
+ * 按 csgo.crawl.lanes.&lt;数据源名称&gt; 分别配置，互不影响。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CrawlScheduler {
+
+    private static final String LANE_PREFIX = "csgo.crawl.lanes.";
+
+    private final List<CrawlSource> sources;
+    private final Environment environment;
+
+    private final Map<String, CrawlLane> lanes = new LinkedHashMap<>();
+    private final List<ScheduledExecutorService> executors = new ArrayList<>();
+    // 没有通道的数据源正在进行的手动抓取
+    private final Set<String> manualInFlight = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 应用启动完成后启动所有启用的通道
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!environment.getProperty("csgo.crawl.enabled", Boolean.class, true)) {
+            log.info("抓取调度已关闭");
+            return;
+        }
+
+        for (CrawlSource source : sources) {
+            String prefix = LANE_PREFIX + source.getSourceName() + ".";
+            if (!environment.getProperty(prefix + "enabled", Boolean.class, true)) {
+                log.info("抓取通道 {} 已关闭", source.getSourceName());
+                continue;
+            }
+
+            long periodMs = environment.getProperty(prefix + "period-ms", Long.class, 30000L);
+            long jitterMs = environment.getProperty(prefix + "jitter-ms", Long.class, 0L);
+            long initialDelayMs = environment.getProperty(prefix + "initial-delay-ms", Long.class, 0L);
+            int maxCatchUp = environment.getProperty(prefix + "max-catch-up", Integer.class, 1);
+            MissedTickPolicy policy = MissedTickPolicy.valueOf(environment
+                    .getProperty(prefix + "missed-tick-policy", "skip").toUpperCase(Locale.ROOT).replace('-', '_'));
+
+            ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "crawl-lane-" + source.getSourceName());
+                thread.setDaemon(true);
+                return thread;
+            });
+            executors.add(executor);
+
+            CrawlLane lane = new CrawlLane(source, periodMs, jitterMs, policy, maxCatchUp, executor);
+            lanes.put(source.getSourceName(), lane);
+            lane.start(initialDelayMs);
+            log.info("抓取通道 {} 已启动，周期 {}ms，抖动 ±{}ms，错过策略 {}",
+                    source.getSourceName(), periodMs, jitterMs, policy);
+        }
+    }
+
+    /**
+     * 手动触发某个数据源的抓取；通道已关闭的数据源同样只允许一次抓取在进行
+     */
+    public TriggerResult trigger(String sourceName) {
+        CrawlLane lane = lanes.get(sourceName);
+        if (lane != null) {
+            return lane.trigger() ? TriggerResult.STARTED : TriggerResult.BUSY;
+        }
+        CrawlSource source = sources.stream()
+                .filter(candidate -> candidate.getSourceName().equals(sourceName))
+                .findFirst()
+                .orElse(null);
+        if (source == null) {
+            return TriggerResult.NOT_FOUND;
+        }
+        if (!manualInFlight.add(sourceName)) {
+            return TriggerResult.BUSY;
+        }
+        source.crawl()
+                .doFinally(signal -> manualInFlight.remove(sourceName))
+                .subscribe(result -> { }, e -> log.error("手动抓取 {} 失败: {}", sourceName, e.getMessage()));
+        return TriggerResult.STARTED;
+    }
+
+    /**
+     * 获取各通道的运行状态与调度延迟
+     */
+    public List<Map<String, Object>> getLaneStatus() {
+        return lanes.values().stream().map(CrawlLane::snapshot).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executors.forEach(ScheduledExecutorService::shutdownNow);
+    }
+}
@@ -0,0 +1,19 @@
+package com.gzy.crawler;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 可被抓取调度器调度的数据源
+ */
+public interface CrawlSource {
+
+    /**
+     * 数据源名称，对应 csgo.crawl.lanes.&lt;name&gt; 配置
+     */
+    String getSourceName();
+
+    /**
+     * 执行一次抓取，成功时发出保存后的数据，失败时为空
+     */
+    Mono<?> crawl();
+}
@@ -1,187 +1,290 @@
 package com.gzy.crawler;
 
-import com.alibaba.fastjson2.JSON;
-import com.alibaba.fastjson2.JSONObject;
 import com.gzy.entity.ItemBlock;
 import com.gzy.entity.ItemBlockData;
+import com.gzy.entity.ItemBlockDelta;
 import com.gzy.entity.ItemBlockCategory;
-import com.gzy.entity.ItemBlockItem;
-import com.gzy.repository.ItemBlockRepository;
+import com.gzy.service.ItemBlockDeltaCodec;
+import com.gzy.service.ItemBlockAnalysisService;
+import com.gzy.service.ItemBlockSketchService;
+import com.gzy.service.ItemPriceSeriesService;
+import com.gzy.service.LatestSnapshotStore;
+import com.gzy.service.SnapshotPublishedEvent;
+import com.gzy.service.SnapshotsClearedEvent;
+import com.gzy.service.WriteBehindBuffer;
+import com.gzy.util.ContentHash;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class ItemBlockCrawler {
+public class ItemBlockCrawler implements CrawlSource {
 
     private final WebClient webClient;
-    private final ItemBlockRepository itemBlockRepository;
+    private final WriteBehindBuffer writeBehindBuffer;
+    private final LatestSnapshotStore latestSnapshotStore;
+    private final ItemPriceSeriesService itemPriceSeriesService;
+    private final ItemBlockAnalysisService itemBlockAnalysisService;
+    private final ItemBlockSketchService itemBlockSketchService;
 
-    private static final String API_URL = "https://sdt-api.ok-skins.com/index/item-block/v1/summary";
-    private static final int TIMEOUT_SECONDS = 30;
-
-    @Scheduled(fixedRate = 30000) // 每30秒执行一次
-    public void crawlItemBlockData() {
-        log.info("开始抓取ItemBlock数据...");
-
-        try {
-            long timestamp = System.currentTimeMillis();
+    // 最近一次保存的完整快照，用于判断上游数据是否变化
+    private final AtomicReference<ItemBlock> lastDistinct = new AtomicReference<>();
 
-            Mono<String> responseMono = webClient.get()
-                    .uri(API_URL + "?timestamp=" + timestamp)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofSeconds(TIMEOUT_SECONDS))
-                    .doOnError(WebClientResponseException.class,
-                            ex -> log.error("HTTP错误: 状态码={}, 响应体={}", ex.getStatusCode(), ex.getResponseBodyAsString()))
-                    .doOnError(Exception.class, ex -> log.error("请求异常: {}", ex.getMessage()));
+    // 最近一次写入的关键帧及其后已写入的增量数量
+    private final AtomicReference<ItemBlock> lastKeyframe = new AtomicReference<>();
+    private final AtomicInteger sinceKeyframe = new AtomicInteger();
 
-            String response = responseMono.block();
+    // 数据被清空的次数：清空前开始保存的快照在清空后才确认写入时，不再用作去重基准和关键帧
+    private final AtomicInteger generation = new AtomicInteger();
 
-            if (response == null || response.isEmpty()) {
-                log.error("从API收到空响应");
-                return;
-            }
+    @Value("${csgo.item-block.keyframe-interval:60}")
+    private int keyframeInterval;
 
-            JSONObject jsonResponse = JSON.parseObject(response);
-
-            // 检查响应状态
-            Boolean success = jsonResponse.getBoolean("success");
-            Integer errorCode = jsonResponse.getInteger("errorCode");
-            String errorMsg = jsonResponse.getString("errorMsg");
+    public static final String SOURCE_NAME = "item-block";
+    private static final String API_URL = "https://sdt-api.ok-skins.com/index/item-block/v1/summary";
+    private static final int TIMEOUT_SECONDS = 30;
+    // 心跳和增量引用的关键帧最长间隔，保证按关键帧时间过期时新写入的记录不会随旧关键帧一起过期
+    private static final Duration MAX_HEARTBEAT_SPAN = Duration.ofHours(1);
 
-            // 验证API响应是否成功
-            if (success == null || !success || (errorCode != null && errorCode != 0)) {
-                log.error("API返回失败状态: success={}, errorCode={}, errorMsg={}",
-                        success, errorCode, errorMsg);
-                // 仍然保存失败的响应数据用于调试
-                saveItemBlockData(jsonResponse, success, errorCode, errorMsg, null);
-                return;
-            }
+    @Override
+    public String getSourceName() {
+        return SOURCE_NAME;
+    }
 
-            JSONObject dataObject = jsonResponse.getJSONObject("data");
-            ItemBlockData parsedData = null;
+    /**
+     * 抓取 -> 解析 -> 保存 的响应式处理链，全程不阻塞线程，由 CrawlScheduler 按通道调度
+     */
+    @Override
+    public Mono<ItemBlock> crawl() {
+        log.info("开始抓取ItemBlock数据...");
+        long timestamp = System.currentTimeMillis();
 
-            if (dataObject != null) {
-                log.info("开始解析ItemBlock数据...");
-                parsedData = parseItemBlockData(dataObject);
-                log.info("成功解析ItemBlock数据，包含 {} 个分类",
-                        parsedData != null ? "多个" : "0");
-            }
+        return webClient.get()
+                .uri(API_URL + "?timestamp=" + timestamp)
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .timeout(Duration.ofSeconds(TIMEOUT_SECONDS))
+                .doOnError(WebClientResponseException.class,
+                        ex -> log.error("HTTP错误: 状态码={}, 响应体={}", ex.getStatusCode(), ex.getResponseBodyAsString()))
+                .filter(body -> body.length > 0)
+                .switchIfEmpty(Mono.fromRunnable(() -> log.error("从API收到空响应")))
+                // 解析在计算线程池进行，不占用网络IO线程
+                .publishOn(Schedulers.parallel())
+                .map(this::buildItemBlock)
+                .flatMap(this::saveItemBlockData)
+                .doOnNext(saved -> log.info("成功获取并处理ItemBlock数据"))
+                .onErrorResume(e -> {
+                    log.error("抓取ItemBlock数据时发生错误: {}", e.getMessage(), e);
+                    return Mono.empty();
+                });
+    }
 
-            // 保存数据
-            saveItemBlockData(jsonResponse, success, errorCode, errorMsg, parsedData);
+    /**
+     * ItemBlock数据被删除后丢弃指向已删除快照的去重基准和关键帧，下一个快照写为完整关键帧
+     */
+    @EventListener
+    public void onSnapshotsCleared(SnapshotsClearedEvent event) {
+        if (event.getKind() != SnapshotPublishedEvent.Kind.ITEM_BLOCK) {
+            return;
+        }
+        generation.incrementAndGet();
+        lastDistinct.set(null);
+        lastKeyframe.set(null);
+        sinceKeyframe.set(0);
+        log.info("ItemBlock数据已清空，下一个快照将写为关键帧");
+    }
 
-            log.info("成功获取并处理ItemBlock数据");
+    /**
+     * 将响应字节直接绑定为ItemBlock，失败的响应同样构建（不含data）用于调试
+     */
+    private ItemBlock buildItemBlock(byte[] response) {
+        ApiResponse<ItemBlockData> apiResponse = ItemBlockResponseParser.parse(response);
 
-        } catch (Exception e) {
-            log.error("抓取ItemBlock数据时发生错误: {}", e.getMessage(), e);
+        ItemBlockData parsedData = null;
+        // 验证API响应是否成功
+        if (!apiResponse.isSucceeded()) {
+            log.error("API返回失败状态: success={}, errorCode={}, errorMsg={}",
+                    apiResponse.getSuccess(), apiResponse.getErrorCode(), apiResponse.getErrorMsg());
+        } else {
+            parsedData = apiResponse.getData();
+            log.info("成功解析ItemBlock数据，包含 {} 个分类",
+                    parsedData != null ? "多个" : "0");
         }
+
+        return ItemBlock.builder()
+                .createTime(LocalDateTime.now())
+                .success(apiResponse.getSuccess())
+                .errorCode(apiResponse.getErrorCode())
+                .errorMsg(apiResponse.getErrorMsg())
+                .errorData(apiResponse.getErrorData())
+                .errorCodeStr(apiResponse.getErrorCodeStr())
+                .data(parsedData)
+                .build();
     }
 
     /**
-     * 解析ItemBlock数据
+     * 保存ItemBlock数据：快照进入写入缓冲区即完成本次抓取，确认落库后在后台追加物品价格序列、保存分析结果和分位数草图，
+     * 最后发布快照；data 与上一个快照相同时只记录心跳，所引用的关键帧超过一小时则重新保存为关键帧
      */
-    private ItemBlockData parseItemBlockData(JSONObject dataObject) {
-        try {
-            return ItemBlockData.builder()
-                    .hot(parseCategory(dataObject.getJSONObject("hot")))
-                    .itemTypeLevel1(parseCategory(dataObject.getJSONObject("itemTypeLevel1")))
-                    .itemTypeLevel2(parseCategory(dataObject.getJSONObject("itemTypeLevel2")))
-                    .itemTypeLevel3(parseCategory(dataObject.getJSONObject("itemTypeLevel3")))
-                    .build();
-        } catch (Exception e) {
-            log.error("解析ItemBlock数据时发生错误: {}", e.getMessage(), e);
-            return null;
+    private Mono<ItemBlock> saveItemBlockData(ItemBlock itemBlock) {
+        int startGeneration = generation.get();
+        if (itemBlock.getData() != null) {
+            itemBlock.setContentHash(ContentHash.of(itemBlock.getData()));
+            ItemBlock previous = lastDistinct.get();
+            if (previous != null && itemBlock.getContentHash().equals(previous.getContentHash())
+                    && withinSpan(previous.getKeyframeTime(), itemBlock.getCreateTime())) {
+                return saveHeartbeat(itemBlock, previous);
+            }
         }
+
+        ItemBlock stored = toStoredForm(itemBlock);
+        stored.setId(new ObjectId().toHexString());
+        // 后续处理使用完整数据
+        itemBlock.setId(stored.getId());
+        return writeBehindBuffer.enqueue(stored)
+                .doOnNext(written -> afterWrite(written, itemBlock, stored == itemBlock, startGeneration)
+                        .subscribe(saved -> { }, e -> { }))
+                .thenReturn(itemBlock);
     }
 
     /**
-     * 解析分类数据
+     * 快照确认落库后的处理；关键帧和去重基准只指向已写入的快照
      */
-    private ItemBlockCategory parseCategory(JSONObject categoryObj) {
-        if (categoryObj == null) {
-            return null;
-        }
+    private Mono<ItemBlock> afterWrite(Mono<ItemBlock> written, ItemBlock itemBlock, boolean keyframe, int startGeneration) {
+        return written
+                .doOnError(e -> {
+                    // 写入失败时下一个快照重新写为关键帧，不再引用可能未落库的数据
+                    lastKeyframe.set(null);
+                    log.error("ItemBlock快照写入失败，下一个快照将写为关键帧: {}", e.getMessage());
+                })
+                .map(saved -> itemBlock)
+                .doOnNext(savedItemBlock -> {
+                    if (savedItemBlock.getData() != null && generation.get() == startGeneration) {
+                        lastDistinct.set(savedItemBlock);
+                        if (keyframe) {
+                            lastKeyframe.set(savedItemBlock);
+                        }
+                    }
+                })
+                .flatMap(savedItemBlock -> itemPriceSeriesService.append(savedItemBlock)
+                        .onErrorResume(e -> {
+                            log.error("追加物品价格序列时发生错误: {}", e.getMessage(), e);
+                            return Mono.empty();
+                        })
+                        .thenReturn(savedItemBlock))
+                .flatMap(savedItemBlock -> itemBlockAnalysisService.record(savedItemBlock)
+                        .onErrorResume(e -> {
+                            log.error("保存ItemBlock分析结果时发生错误: {}", e.getMessage(), e);
+                            return Mono.empty();
+                        })
+                        .thenReturn(savedItemBlock))
+                .flatMap(savedItemBlock -> itemBlockSketchService.record(savedItemBlock)
+                        .onErrorResume(e -> {
+                            log.error("更新分位数草图时发生错误: {}", e.getMessage(), e);
+                            return Mono.empty();
+                        })
+                        .thenReturn(savedItemBlock))
+                .doOnNext(savedItemBlock -> {
+                    // 快照、价格序列和分析结果都已写入后才发布，发布事件触发的缓存失效不会读到缺少新快照的数据
+                    latestSnapshotStore.publishItemBlock(savedItemBlock);
 
-        return ItemBlockCategory.builder()
-                .defaultList(parseItemList(categoryObj.getJSONArray("defaultList")))
-                .topList(parseItemList(categoryObj.getJSONArray("topList")))
-                .bottomList(parseItemList(categoryObj.getJSONArray("bottomList")))
-                .build();
+                    ItemBlockData data = savedItemBlock.getData();
+                    int totalItems = 0;
+                    if (data != null) {
+                        totalItems += countItemsInCategory(data.getHot());
+                        totalItems += countItemsInCategory(data.getItemTypeLevel1());
+                        totalItems += countItemsInCategory(data.getItemTypeLevel2());
+                        totalItems += countItemsInCategory(data.getItemTypeLevel3());
+                    }
+
+                    log.info("成功保存ItemBlock数据到MongoDB，ID: {}, 包含 {} 个items",
+                            savedItemBlock.getId(), totalItems);
+                });
     }
 
     /**
-     * 解析项目列表
+     * 转换为存储形式：每 keyframeInterval 个快照或关键帧超过一小时写一个完整关键帧，其余只写相对关键帧的增量
      */
-    private List<ItemBlockItem> parseItemList(com.alibaba.fastjson2.JSONArray jsonArray) {
-        if (jsonArray == null) {
-            return new ArrayList<>();
+    private ItemBlock toStoredForm(ItemBlock itemBlock) {
+        if (itemBlock.getData() == null) {
+            return itemBlock;
         }
 
-        List<ItemBlockItem> items = new ArrayList<>();
-        for (int i = 0; i < jsonArray.size(); i++) {
-            JSONObject itemObj = jsonArray.getJSONObject(i);
-            if (itemObj != null) {
-                ItemBlockItem item = ItemBlockItem.builder()
-                        .type(itemObj.getString("type"))
-                        .name(itemObj.getString("name"))
-                        .level(itemObj.getInteger("level"))
-                        .typeVal(itemObj.getString("typeVal"))
-                        .index(itemObj.getDouble("index"))
-                        .riseFallRate(itemObj.getDouble("riseFallRate"))
-                        .riseFallDiff(itemObj.getDouble("riseFallDiff"))
-                        .build();
-                items.add(item);
-            }
+        ItemBlock keyframe = lastKeyframe.get();
+        ItemBlockDelta delta = keyframe != null && sinceKeyframe.get() < keyframeInterval
+                && withinSpan(keyframe.getKeyframeTime(), itemBlock.getCreateTime())
+                ? ItemBlockDeltaCodec.encode(keyframe.getData(), itemBlock.getData())
+                : null;
+        if (delta == null) {
+            sinceKeyframe.set(0);
+            itemBlock.setKeyframeTime(itemBlock.getCreateTime());
+            return itemBlock;
         }
-        return items;
+
+        sinceKeyframe.incrementAndGet();
+        itemBlock.setKeyframeOf(keyframe.getId());
+        itemBlock.setKeyframeTime(keyframe.getKeyframeTime());
+        return ItemBlock.builder()
+                .createTime(itemBlock.getCreateTime())
+                .success(itemBlock.getSuccess())
+                .errorCode(itemBlock.getErrorCode())
+                .errorMsg(itemBlock.getErrorMsg())
+                .errorData(itemBlock.getErrorData())
+                .errorCodeStr(itemBlock.getErrorCodeStr())
+                .contentHash(itemBlock.getContentHash())
+                .delta(delta)
+                .keyframeOf(itemBlock.getKeyframeOf())
+                .keyframeTime(itemBlock.getKeyframeTime())
+                .build();
     }
 
     /**
-     * 保存ItemBlock数据
+     * 保存心跳记录：只包含时间和所重复的快照，确认落库后还原为完整快照发布到内存
      */
-    private void saveItemBlockData(JSONObject jsonResponse, Boolean success, Integer errorCode,
-            String errorMsg, ItemBlockData data) {
-        try {
-            ItemBlock itemBlock = ItemBlock.builder()
-                    .createTime(LocalDateTime.now())
-                    .success(success)
-                    .errorCode(errorCode)
-                    .errorMsg(errorMsg)
-                    .errorData(jsonResponse.get("errorData"))
-                    .errorCodeStr(jsonResponse.getString("errorCodeStr"))
-                    .data(data)
-                    .build();
-
-            ItemBlock savedItemBlock = itemBlockRepository.save(itemBlock);
-
-            int totalItems = 0;
-            if (data != null) {
-                totalItems += countItemsInCategory(data.getHot());
-                totalItems += countItemsInCategory(data.getItemTypeLevel1());
-                totalItems += countItemsInCategory(data.getItemTypeLevel2());
-                totalItems += countItemsInCategory(data.getItemTypeLevel3());
-            }
+    private Mono<ItemBlock> saveHeartbeat(ItemBlock itemBlock, ItemBlock previous) {
+        ItemBlock heartbeat = ItemBlock.builder()
+                .createTime(itemBlock.getCreateTime())
+                .success(itemBlock.getSuccess())
+                .errorCode(itemBlock.getErrorCode())
+                .repeatOf(previous.getId())
+                .repeatOfTime(previous.getCreateTime())
+                .keyframeTime(previous.getKeyframeTime())
+                .build();
 
-            log.info("成功保存ItemBlock数据到MongoDB，ID: {}, 包含 {} 个items",
-                    savedItemBlock.getId(), totalItems);
+        heartbeat.setId(new ObjectId().toHexString());
+        return writeBehindBuffer.enqueue(heartbeat)
+                .doOnNext(written -> written
+                        .doOnNext(saved -> {
+                            saved.setData(previous.getData());
+                            saved.setContentHash(previous.getContentHash());
+                            itemPriceSeriesService.appendRepeat(saved.getCreateTime(), previous.getCreateTime());
+                            latestSnapshotStore.publishItemBlock(saved);
+                            log.info("ItemBlock数据未变化，记录心跳，ID: {}, 重复快照: {}", saved.getId(), previous.getId());
+                        })
+                        .subscribe(saved -> { }, e -> log.error("ItemBlock心跳写入失败: {}", e.getMessage())))
+                .thenReturn(heartbeat);
+    }
 
-        } catch (Exception e) {
-            log.error("保存ItemBlock数据时发生错误: {}", e.getMessage(), e);
-        }
+    /**
+     * 关键帧时间距当前快照不超过 MAX_HEARTBEAT_SPAN 时才可被心跳或增量引用
+     */
+    private static boolean withinSpan(LocalDateTime keyframeTime, LocalDateTime createTime) {
+        return keyframeTime != null && keyframeTime.plus(MAX_HEARTBEAT_SPAN).isAfter(createTime);
     }
 
     /**
@@ -200,12 +303,4 @@ public class ItemBlockCrawler {
             count += category.getBottomList().size();
         return count;
     }
-
-    /**
-     * 手动触发数据抓取（用于测试）
-     */
-    public void manualCrawl() {
-        log.info("手动触发ItemBlock数据抓取");
-        crawlItemBlockData();
-    }
 }
@@ -0,0 +1,107 @@
+package com.gzy.crawler;
+
+import com.alibaba.fastjson2.JSONReader;
+import com.gzy.entity.ItemBlockCategory;
+import com.gzy.entity.ItemBlockData;
+import com.gzy.entity.ItemBlockItem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ItemBlock响应解析器，将响应字节直接流式绑定到 ItemBlockData
+ */
+public final class ItemBlockResponseParser {
+
+    private ItemBlockResponseParser() {
+    }
+
+    public static ApiResponse<ItemBlockData> parse(byte[] bytes) {
+        return ApiResponseReader.read(bytes, ItemBlockResponseParser::readData);
+    }
+
+    private static ItemBlockData readData(JSONReader reader) {
+        ItemBlockData data = new ItemBlockData();
+        ApiResponseReader.readObject(reader, name -> {
+            switch (name) {
+                case "hot" -> data.setHot(readCategory(reader));
+                case "itemTypeLevel1" -> data.setItemTypeLevel1(readCategory(reader));
+                case "itemTypeLevel2" -> data.setItemTypeLevel2(readCategory(reader));
+                case "itemTypeLevel3" -> data.setItemTypeLevel3(readCategory(reader));
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        });
+        return data;
+    }
+
+    private static ItemBlockCategory readCategory(JSONReader reader) {
+        ItemBlockCategory category = new ItemBlockCategory();
+        boolean present = ApiResponseReader.readObject(reader, name -> {
+            switch (name) {
+                case "defaultList" -> category.setDefaultList(readItemList(reader));
+                case "topList" -> category.setTopList(readItemList(reader));
+                case "bottomList" -> category.setBottomList(readItemList(reader));
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        });
+        if (!present) {
+            return null;
+        }
+
+        // 与上游缺少列表时的处理保持一致：缺失的列表视为空列表
+        if (category.getDefaultList() == null) {
+            category.setDefaultList(new ArrayList<>());
+        }
+        if (category.getTopList() == null) {
+            category.setTopList(new ArrayList<>());
+        }
+        if (category.getBottomList() == null) {
+            category.setBottomList(new ArrayList<>());
+        }
+        return category;
+    }
+
+    private static List<ItemBlockItem> readItemList(JSONReader reader) {
+        List<ItemBlockItem> items = new ArrayList<>();
+        if (reader.nextIfNull()) {
+            return items;
+        }
+        if (!reader.nextIfArrayStart()) {
+            reader.skipValue();
+            return items;
+        }
+        while (!reader.nextIfArrayEnd()) {
+            ItemBlockItem item = readItem(reader);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    private static ItemBlockItem readItem(JSONReader reader) {
+        ItemBlockItem item = new ItemBlockItem();
+        boolean present = ApiResponseReader.readObject(reader, name -> {
+            switch (name) {
+                case "type" -> item.setType(reader.readString());
+                case "name" -> item.setName(reader.readString());
+                case "level" -> item.setLevel(reader.readInt32());
+                case "typeVal" -> item.setTypeVal(reader.readString());
+                case "index" -> item.setIndex(reader.readDouble());
+                case "riseFallRate" -> item.setRiseFallRate(reader.readDouble());
+                case "riseFallDiff" -> item.setRiseFallDiff(reader.readDouble());
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        });
+        return present ? item : null;
+    }
+}
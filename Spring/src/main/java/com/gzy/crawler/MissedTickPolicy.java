@@ -0,0 +1,17 @@
+package com.gzy.crawler;
+
+/**
+ * 抓取错过调度点时的处理策略
+ */
+public enum MissedTickPolicy {
+
+    /**
+     * 上一次抓取未完成时直接丢弃本次调度点
+     */
+    SKIP,
+
+    /**
+     * 记录错过的调度点，上一次抓取完成后立即补抓（数量受 max-catch-up 限制）
+     */
+    CATCH_UP
+}
@@ -1,178 +1,169 @@
 package com.gzy.crawler;
 
-import com.alibaba.fastjson2.JSON;
-import com.alibaba.fastjson2.JSONObject;
 import com.gzy.entity.Statistics;
-import com.gzy.entity.TodayStatistics;
-import com.gzy.entity.YesterdayStatistics;
-import com.gzy.repository.StatisticsRepository;
+import com.gzy.repository.StatisticsReadCallback;
+import com.gzy.service.LatestSnapshotStore;
+import com.gzy.service.MarketIndexHistoryService;
+import com.gzy.service.SnapshotPublishedEvent;
+import com.gzy.service.SnapshotsClearedEvent;
+import com.gzy.service.WriteBehindBuffer;
+import com.gzy.util.ContentHash;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.bson.types.ObjectId;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.ArrayList;
-import java.util.Optional;
-import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class StatisticsCrawler {
+public class StatisticsCrawler implements CrawlSource {
 
     private final WebClient webClient;
-    private final StatisticsRepository summaryRepository;
+    private final WriteBehindBuffer writeBehindBuffer;
+    private final LatestSnapshotStore latestSnapshotStore;
+    private final MarketIndexHistoryService marketIndexHistoryService;
 
+    // 最近一次保存的完整采样，用于判断上游数据是否变化
+    private final AtomicReference<Statistics> lastDistinct = new AtomicReference<>();
+
+    // 数据被清空的次数：清空前开始保存的采样在清空后才确认写入时，不再用作去重基准
+    private final AtomicInteger generation = new AtomicInteger();
+
+    public static final String SOURCE_NAME = "statistics";
     private static final String API_URL = "https://sdt-api.ok-skins.com/index/statistics/v1/summary";
     private static final int TIMEOUT_SECONDS = 30;
+    // 心跳引用的完整采样最长间隔，保证按时间过期时心跳不会早于被引用的采样保留；汇总时据此向前回看被引用的采样
+    public static final Duration MAX_HEARTBEAT_SPAN = Duration.ofHours(1);
 
-    @Scheduled(fixedRate = 30000) // 每30秒执行一次
-    public void crawlSteamStatistics() {
-        log.info("开始抓取Steam统计数据...");
-
-        try {
-            long timestamp = System.currentTimeMillis();
-
-            Mono<String> responseMono = webClient.get()
-                    .uri(API_URL + "?timestamp=" + timestamp)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofSeconds(TIMEOUT_SECONDS))
-                    .doOnError(WebClientResponseException.class,
-                            ex -> log.error("HTTP错误: 状态码={}, 响应体={}", ex.getStatusCode(), ex.getResponseBodyAsString()))
-                    .doOnError(Exception.class, ex -> log.error("请求异常: {}", ex.getMessage()));
-
-            String response = responseMono.block();
-
-            if (response == null || response.isEmpty()) {
-                log.error("从API收到空响应");
-                return;
-            }
-
-            JSONObject jsonResponse = JSON.parseObject(response);
-
-            // 检查响应状态
-            Boolean success = jsonResponse.getBoolean("success");
-            Integer errorCode = jsonResponse.getInteger("errorCode");
-            String errorMsg = jsonResponse.getString("errorMsg");
-            // 验证API响应是否成功
-            if (success == null || !success || (errorCode != null && errorCode != 0)) {
-                log.error("API返回失败状态: success={}, errorCode={}, errorMsg={}",
-                        success, errorCode, errorMsg);
-                return;
-            }
-
-            JSONObject data = jsonResponse.getJSONObject("data");
-            if (data == null) {
-                log.warn("响应中没有找到数据");
-                return;
-            }
-
-            // 处理统计数据
-            processStatisticsData(data);
-
-            log.info("成功获取并处理Steam统计数据");
-
-        } catch (Exception e) {
-            log.error("抓取Steam统计数据时发生错误: {}", e.getMessage(), e);
-        }
+    @Override
+    public String getSourceName() {
+        return SOURCE_NAME;
     }
 
     /**
-     * 处理统计数据
-     * 
-     * @param data 从API获取的数据
+     * 抓取 -> 解析 -> 保存 的响应式处理链，全程不阻塞线程，由 CrawlScheduler 按通道调度
      */
-    private void processStatisticsData(JSONObject data) {
-        try {
-
-            Statistics summary = Statistics.builder()
-                    .createTime(LocalDateTime.now())
-                    .broadMarketIndex(data.getDouble("broadMarketIndex"))
-                    .diffYesterday(data.getDouble("diffYesterday"))
-                    .diffYesterdayRatio(data.getDouble("diffYesterdayRatio"))
-                    .surviveNum(data.getString("surviveNum"))
-                    .holdersNum(data.getString("holdersNum"))
-                    .riseFallType(data.getString("riseFallType"))
-                    .riseFallDays(data.getInteger("riseFallDays"))
-                    .historyMarketIndexList(parseHistoryMarketIndexList(data))
-                    .todayStatistics(parseStatistics(data, "todayStatistics", this::buildTodayStatistics))
-                    .yesterdayStatistics(parseStatistics(data, "yesterdayStatistics", this::buildYesterdayStatistics))
-                    .build();
-
-            Statistics savedSummary = summaryRepository.save(summary);
-            log.info("成功保存数据到MongoDB，ID: {}", savedSummary.getId());
-
-        } catch (Exception e) {
-            log.error("处理统计数据时发生错误: {}", e.getMessage(), e);
-        }
+    @Override
+    public Mono<Statistics> crawl() {
+        log.info("开始抓取Steam统计数据...");
+        long timestamp = System.currentTimeMillis();
+
+        return webClient.get()
+                .uri(API_URL + "?timestamp=" + timestamp)
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .timeout(Duration.ofSeconds(TIMEOUT_SECONDS))
+                .doOnError(WebClientResponseException.class,
+                        ex -> log.error("HTTP错误: 状态码={}, 响应体={}", ex.getStatusCode(), ex.getResponseBodyAsString()))
+                .filter(body -> body.length > 0)
+                .switchIfEmpty(Mono.fromRunnable(() -> log.error("从API收到空响应")))
+                // 解析在计算线程池进行，不占用网络IO线程
+                .publishOn(Schedulers.parallel())
+                .mapNotNull(this::buildStatistics)
+                .flatMap(this::saveStatistics)
+                .doOnNext(saved -> log.info("成功获取并处理Steam统计数据"))
+                .onErrorResume(e -> {
+                    log.error("抓取Steam统计数据时发生错误: {}", e.getMessage(), e);
+                    return Mono.empty();
+                });
     }
 
     /**
-     * 解析历史市场指数列表
+     * 统计数据被删除后丢弃指向已删除采样的去重基准，下一次采样完整保存
      */
-    @SuppressWarnings("unchecked")
-    private List<List<Double>> parseHistoryMarketIndexList(JSONObject data) {
-        return Optional.ofNullable(data.get("historyMarketIndexList"))
-                .filter(List.class::isInstance)
-                .map(rawList -> ((List<List<Object>>) rawList).stream()
-                        .map(item -> item.stream()
-                                .filter(Number.class::isInstance)
-                                .map(obj -> ((Number) obj).doubleValue())
-                                .toList())
-                        .toList())
-                .orElse(new ArrayList<>());
+    @EventListener
+    public void onSnapshotsCleared(SnapshotsClearedEvent event) {
+        if (event.getKind() != SnapshotPublishedEvent.Kind.STATISTICS) {
+            return;
+        }
+        generation.incrementAndGet();
+        lastDistinct.set(null);
+        log.info("Steam统计数据已清空，下一次采样将完整保存");
     }
 
     /**
-     * 通用统计数据解析函数
+     * 将响应字节直接绑定为Statistics，响应失败或没有数据时返回null
      */
-    private <T> T parseStatistics(JSONObject data, String key, Function<JSONObject, T> builder) {
-        return Optional.ofNullable(data.getJSONObject(key))
-                .map(builder)
-                .orElse(null);
+    private Statistics buildStatistics(byte[] response) {
+        ApiResponse<Statistics> apiResponse = StatisticsResponseParser.parse(response);
+
+        // 验证API响应是否成功
+        if (!apiResponse.isSucceeded()) {
+            log.error("API返回失败状态: success={}, errorCode={}, errorMsg={}",
+                    apiResponse.getSuccess(), apiResponse.getErrorCode(), apiResponse.getErrorMsg());
+            return null;
+        }
+
+        Statistics summary = apiResponse.getData();
+        if (summary == null) {
+            log.warn("响应中没有找到数据");
+            return null;
+        }
+
+        // 哈希只覆盖上游数据，不含创建时间
+        summary.setContentHash(ContentHash.of(summary));
+        summary.setCreateTime(LocalDateTime.now());
+        return summary;
     }
 
     /**
-     * 构建今日统计对象
+     * 保存统计数据：采样进入写入缓冲区即完成本次抓取，历史指数序列的追加和确认落库后的发布在后台进行；
+     * 与上一次采样内容相同时只记录心跳，心跳持续超过一小时则重新保存完整采样
      */
-    private TodayStatistics buildTodayStatistics(JSONObject stats) {
-        return TodayStatistics.builder()
-                .addNum(stats.getString("addNum"))
-                .addValuation(stats.getDouble("addValuation"))
-                .tradeNum(stats.getString("tradeNum"))
-                .turnover(stats.getDouble("turnover"))
-                .addNumRatio(stats.getDouble("addNumRatio"))
-                .addAmountRatio(stats.getDouble("addAmountRatio"))
-                .tradeVolumeRatio(stats.getDouble("tradeVolumeRatio"))
-                .tradeAmountRatio(stats.getDouble("tradeAmountRatio"))
-                .build();
+    private Mono<Statistics> saveStatistics(Statistics summary) {
+        int startGeneration = generation.get();
+        Statistics previous = lastDistinct.get();
+        if (previous != null && summary.getContentHash().equals(previous.getContentHash())
+                && previous.getCreateTime().plus(MAX_HEARTBEAT_SPAN).isAfter(summary.getCreateTime())) {
+            return saveHeartbeat(summary, previous);
+        }
+
+        // 历史列表只追加新点到去重序列，文档中仅保留时间范围
+        summary.setId(new ObjectId().toHexString());
+        marketIndexHistoryService.mark(summary);
+        return writeBehindBuffer.enqueue(summary)
+                .doOnNext(written -> marketIndexHistoryService.append(summary)
+                        .then(written)
+                        .doOnNext(savedSummary -> {
+                            if (generation.get() == startGeneration) {
+                                lastDistinct.set(savedSummary);
+                            }
+                            latestSnapshotStore.publishStatistics(savedSummary);
+                            log.info("成功保存数据到MongoDB，ID: {}", savedSummary.getId());
+                        })
+                        .subscribe(saved -> { }, e -> log.error("保存Steam统计数据时发生错误: {}", e.getMessage(), e)))
+                .thenReturn(summary);
     }
 
     /**
-     * 构建昨日统计对象
+     * 保存心跳记录：只包含时间和所重复的采样，确认落库后还原为完整采样发布到内存
      */
-    private YesterdayStatistics buildYesterdayStatistics(JSONObject stats) {
-        return YesterdayStatistics.builder()
-                .addNum(stats.getString("addNum"))
-                .addValuation(stats.getDouble("addValuation"))
-                .tradeNum(stats.getString("tradeNum"))
-                .turnover(stats.getDouble("turnover"))
+    private Mono<Statistics> saveHeartbeat(Statistics summary, Statistics previous) {
+        Statistics heartbeat = Statistics.builder()
+                .createTime(summary.getCreateTime())
+                .repeatOf(previous.getId())
                 .build();
-    }
 
-    /**
-     * 手动触发数据抓取（用于测试）
-     */
-    public void manualCrawl() {
-        log.info("手动触发Steam统计数据抓取");
-        crawlSteamStatistics();
+        heartbeat.setId(new ObjectId().toHexString());
+        return writeBehindBuffer.enqueue(heartbeat)
+                .doOnNext(written -> written
+                        .doOnNext(saved -> {
+                            StatisticsReadCallback.resolve(saved, previous);
+                            latestSnapshotStore.publishStatistics(saved);
+                            log.info("Steam统计数据未变化，记录心跳，ID: {}, 重复采样: {}", saved.getId(), previous.getId());
+                        })
+                        .subscribe(saved -> { }, e -> log.error("Steam统计数据心跳写入失败: {}", e.getMessage())))
+                .thenReturn(heartbeat);
     }
-}
\ No newline at end of file
+}
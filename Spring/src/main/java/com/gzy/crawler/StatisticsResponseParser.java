@@ -0,0 +1,119 @@
+package com.gzy.crawler;
+
+import com.alibaba.fastjson2.JSONReader;
+import com.gzy.entity.Statistics;
+import com.gzy.entity.TodayStatistics;
+import com.gzy.entity.YesterdayStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Steam统计响应解析器，将响应字节直接流式绑定到 Statistics（不含创建时间）
+ */
+public final class StatisticsResponseParser {
+
+    private StatisticsResponseParser() {
+    }
+
+    public static ApiResponse<Statistics> parse(byte[] bytes) {
+        return ApiResponseReader.read(bytes, StatisticsResponseParser::readData);
+    }
+
+    private static Statistics readData(JSONReader reader) {
+        Statistics statistics = new Statistics();
+        ApiResponseReader.readObject(reader, name -> {
+            switch (name) {
+                case "broadMarketIndex" -> statistics.setBroadMarketIndex(reader.readDouble());
+                case "diffYesterday" -> statistics.setDiffYesterday(reader.readDouble());
+                case "diffYesterdayRatio" -> statistics.setDiffYesterdayRatio(reader.readDouble());
+                case "surviveNum" -> statistics.setSurviveNum(reader.readString());
+                case "holdersNum" -> statistics.setHoldersNum(reader.readString());
+                case "riseFallType" -> statistics.setRiseFallType(reader.readString());
+                case "riseFallDays" -> statistics.setRiseFallDays(reader.readInt32());
+                case "historyMarketIndexList" -> statistics.setHistoryMarketIndexList(readHistoryList(reader));
+                case "todayStatistics" -> statistics.setTodayStatistics(readTodayStatistics(reader));
+                case "yesterdayStatistics" -> statistics.setYesterdayStatistics(readYesterdayStatistics(reader));
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        });
+        if (statistics.getHistoryMarketIndexList() == null) {
+            statistics.setHistoryMarketIndexList(new ArrayList<>());
+        }
+        return statistics;
+    }
+
+    /**
+     * 读取历史市场指数列表 [[时间戳, 指数值], ...]，非数值元素被忽略
+     */
+    private static List<List<Double>> readHistoryList(JSONReader reader) {
+        List<List<Double>> history = new ArrayList<>();
+        if (reader.nextIfNull()) {
+            return history;
+        }
+        if (!reader.nextIfArrayStart()) {
+            reader.skipValue();
+            return history;
+        }
+        while (!reader.nextIfArrayEnd()) {
+            if (reader.nextIfNull()) {
+                continue;
+            }
+            if (!reader.nextIfArrayStart()) {
+                reader.skipValue();
+                continue;
+            }
+            List<Double> point = new ArrayList<>(2);
+            while (!reader.nextIfArrayEnd()) {
+                if (reader.isNumber()) {
+                    point.add(reader.readDoubleValue());
+                } else {
+                    reader.skipValue();
+                }
+            }
+            history.add(point);
+        }
+        return history;
+    }
+
+    private static TodayStatistics readTodayStatistics(JSONReader reader) {
+        TodayStatistics stats = new TodayStatistics();
+        boolean present = ApiResponseReader.readObject(reader, name -> {
+            switch (name) {
+                case "addNum" -> stats.setAddNum(reader.readString());
+                case "addValuation" -> stats.setAddValuation(reader.readDouble());
+                case "tradeNum" -> stats.setTradeNum(reader.readString());
+                case "turnover" -> stats.setTurnover(reader.readDouble());
+                case "addNumRatio" -> stats.setAddNumRatio(reader.readDouble());
+                case "addAmountRatio" -> stats.setAddAmountRatio(reader.readDouble());
+                case "tradeVolumeRatio" -> stats.setTradeVolumeRatio(reader.readDouble());
+                case "tradeAmountRatio" -> stats.setTradeAmountRatio(reader.readDouble());
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        });
+        return present ? stats : null;
+    }
+
+    private static YesterdayStatistics readYesterdayStatistics(JSONReader reader) {
+        YesterdayStatistics stats = new YesterdayStatistics();
+        boolean present = ApiResponseReader.readObject(reader, name -> {
+            switch (name) {
+                case "addNum" -> stats.setAddNum(reader.readString());
+                case "addValuation" -> stats.setAddValuation(reader.readDouble());
+                case "tradeNum" -> stats.setTradeNum(reader.readString());
+                case "turnover" -> stats.setTurnover(reader.readDouble());
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        });
+        return present ? stats : null;
+    }
+}
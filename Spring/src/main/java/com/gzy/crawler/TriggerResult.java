@@ -0,0 +1,22 @@
+package com.gzy.crawler;
+
+/**
+ * 手动触发抓取的结果
+ */
+public enum TriggerResult {
+
+    /**
+     * 已发起抓取
+     */
+    STARTED,
+
+    /**
+     * 上一次抓取尚未完成，本次未发起
+     */
+    BUSY,
+
+    /**
+     * 没有该名称的数据源
+     */
+    NOT_FOUND
+}
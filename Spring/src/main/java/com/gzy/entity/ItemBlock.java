@@ -5,6 +5,8 @@ import lombok.Data;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -14,6 +16,12 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "item_blocks")
+@CompoundIndexes({
+        // 最新快照、时间范围查询和游标分页（createTime, _id 倒序）
+        @CompoundIndex(name = "createTime_id", def = "{'createTime': -1, '_id': -1}"),
+        // 按成功状态查询
+        @CompoundIndex(name = "success_createTime", def = "{'success': 1, 'createTime': -1}")
+})
 public class ItemBlock {
 
     @Id
@@ -22,9 +30,18 @@ public class ItemBlock {
     // 创建时间
     private LocalDateTime createTime;
 
-    // 结构化的数据内容
+    // 结构化的数据内容（增量记录不保存，读取时由关键帧和 delta 还原）
     private ItemBlockData data;
 
+    // 相对关键帧的增量数据，关键帧和心跳记录为空
+    private ItemBlockDelta delta;
+
+    // 增量记录所属关键帧的ID
+    private String keyframeOf;
+
+    // 所属关键帧的创建时间（关键帧为自身创建时间）
+    private LocalDateTime keyframeTime;
+
     // 成功状态
     private Boolean success;
 
@@ -39,4 +56,13 @@ public class ItemBlock {
 
     // 错误代码字符串
     private String errorCodeStr;
+
+    // data 的内容哈希，用于判断上游数据是否变化
+    private String contentHash;
+
+    // 心跳记录所重复的快照ID（上游数据未变化时只记录心跳，读取时还原为该快照的数据）
+    private String repeatOf;
+
+    // 心跳记录所重复的快照的创建时间
+    private LocalDateTime repeatOfTime;
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.gzy.entity;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * ItemBlock快照的分析结果（物化视图），每个非心跳快照入库时计算一次，ID与快照ID相同
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "item_block_analysis")
+public class ItemBlockAnalysis {
+
+    // 对应快照的ID
+    @Id
+    private String id;
+
+    // 对应快照的创建时间
+    private LocalDateTime createTime;
+
+    // 热门
+    private ItemBlockCategoryAnalysis hot;
+
+    // 一级类型
+    private ItemBlockCategoryAnalysis itemTypeLevel1;
+
+    // 二级类型
+    private ItemBlockCategoryAnalysis itemTypeLevel2;
+
+    // 三级类型
+    private ItemBlockCategoryAnalysis itemTypeLevel3;
+}
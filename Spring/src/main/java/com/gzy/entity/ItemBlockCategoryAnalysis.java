@@ -0,0 +1,75 @@
+package com.gzy.entity;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 单个分类的分析结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemBlockCategoryAnalysis {
+
+    // 默认列表、涨幅榜、跌幅榜的物品总数
+    private int itemsCount;
+
+    // 默认列表物品数量
+    private int defaultCount;
+
+    // 默认列表物品名称，与 riseFallRates、indexes 一一对应（物品名称可能含"."，不能作为文档字段名）
+    private List<String> names;
+
+    // 默认列表物品涨跌幅
+    private List<Double> riseFallRates;
+
+    // 默认列表物品指数
+    private List<Double> indexes;
+
+    // 默认列表平均涨跌幅
+    private Double avgRiseFallRate;
+
+    // 默认列表上涨（涨跌幅>=0）物品数量
+    private long risingItemsCount;
+
+    // 默认列表下跌物品数量
+    private long fallingItemsCount;
+
+    // 默认列表平均指数
+    private Double avgIndex;
+
+    // 默认列表最高指数
+    private Double maxIndex;
+
+    // 默认列表最低指数
+    private Double minIndex;
+
+    // 涨幅榜物品数量
+    private int topItemsCount;
+
+    // 涨幅榜平均涨跌幅
+    private Double topListAvgRate;
+
+    // 涨幅榜最高涨跌幅
+    private Double topListMaxRate;
+
+    // 涨幅榜第一名
+    private ItemBlockItem topItem;
+
+    // 跌幅榜物品数量
+    private int bottomItemsCount;
+
+    // 跌幅榜平均涨跌幅
+    private Double bottomListAvgRate;
+
+    // 跌幅榜最低涨跌幅
+    private Double bottomListMinRate;
+
+    // 跌幅榜第一名
+    private ItemBlockItem bottomItem;
+}
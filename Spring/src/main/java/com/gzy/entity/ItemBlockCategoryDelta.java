@@ -0,0 +1,25 @@
+package com.gzy.entity;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+/**
+ * 分类增量数据，列表为空表示与关键帧相同
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemBlockCategoryDelta {
+
+    // 默认列表
+    private ItemBlockListDelta defaultList;
+
+    // 涨幅榜 (topList)
+    private ItemBlockListDelta topList;
+
+    // 跌幅榜 (bottomList)
+    private ItemBlockListDelta bottomList;
+}
@@ -0,0 +1,28 @@
+package com.gzy.entity;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+/**
+ * ItemBlock增量数据，相对于所属关键帧记录变化；分类为空表示与关键帧相同
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemBlockDelta {
+
+    // 热门物品分类
+    private ItemBlockCategoryDelta hot;
+
+    // 一级物品类型分类
+    private ItemBlockCategoryDelta itemTypeLevel1;
+
+    // 二级物品类型分类
+    private ItemBlockCategoryDelta itemTypeLevel2;
+
+    // 三级物品类型分类
+    private ItemBlockCategoryDelta itemTypeLevel3;
+}
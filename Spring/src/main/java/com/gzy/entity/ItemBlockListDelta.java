@@ -0,0 +1,27 @@
+package com.gzy.entity;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 列表增量数据（按物品名称对应关键帧中的物品）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemBlockListDelta {
+
+    // 列表中物品名称的顺序，为空表示与关键帧相同（成员和顺序均未变化）
+    private List<String> order;
+
+    // 与关键帧不同或新进入列表的物品
+    private List<ItemBlockItem> changed;
+
+    // 完整列表（物品名称重复等无法按名称对应时使用）
+    private List<ItemBlockItem> items;
+}
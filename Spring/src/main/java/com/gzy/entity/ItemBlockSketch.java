@@ -0,0 +1,46 @@
+package com.gzy.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * 每小时每个分类、每个指标一个t-digest分位数草图，任意时间窗口的分位数由窗口内各小时草图合并得到
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "item_block_sketches")
+@CompoundIndex(name = "category_metric_bucketStart", def = "{'category': 1, 'metric': 1, 'bucketStart': 1}")
+public class ItemBlockSketch {
+
+    // 分类、指标与时间桶组成的主键
+    @Id
+    private String id;
+
+    // 分类：hot、level1、level2、level3
+    private String category;
+
+    // 指标：riseFallRate、index
+    private String metric;
+
+    // 时间桶起始时间（整点）
+    private LocalDateTime bucketStart;
+
+    // 桶内样本数量
+    private Long count;
+
+    // 桶内最小值与最大值
+    private Double min;
+    private Double max;
+
+    // t-digest 序列化结果（MergingDigest.asSmallBytes）
+    private byte[] digest;
+}
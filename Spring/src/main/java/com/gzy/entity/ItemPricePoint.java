@@ -0,0 +1,41 @@
+package com.gzy.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+import java.time.LocalDateTime;
+
+/**
+ * 单个物品的价格序列点，抓取时从ItemBlock中提取
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TimeSeries(collection = "item_price_series", timeField = "createTime", metaField = "itemName",
+        granularity = Granularity.SECONDS)
+public class ItemPricePoint {
+
+    @Id
+    private String id;
+
+    // 物品名称
+    private String itemName;
+
+    // 所属快照的创建时间
+    private LocalDateTime createTime;
+
+    // 指数
+    private Double index;
+
+    // 涨跌率
+    private Double riseFallRate;
+
+    // 涨跌差值
+    private Double riseFallDiff;
+}
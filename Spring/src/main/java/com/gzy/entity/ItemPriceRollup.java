@@ -0,0 +1,48 @@
+package com.gzy.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * 单个物品的分时汇总，按分辨率分别存放在 item_price_rollup_1h/1d 集合
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document
+public class ItemPriceRollup {
+
+    // 物品名称与时间桶组成的主键
+    @Id
+    private String id;
+
+    // 物品名称
+    private String itemName;
+
+    // 时间桶起始时间
+    private LocalDateTime bucketStart;
+
+    // 桶内采样数量
+    private Long count;
+
+    // 指数 开/高/低/收
+    private Double indexOpen;
+    private Double indexHigh;
+    private Double indexLow;
+    private Double indexClose;
+
+    // 指数之和（用于计算均值）
+    private Double indexSum;
+
+    // 涨跌率 高/低/收
+    private Double riseFallRateHigh;
+    private Double riseFallRateLow;
+    private Double riseFallRateClose;
+}
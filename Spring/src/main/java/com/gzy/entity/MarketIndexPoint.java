@@ -0,0 +1,26 @@
+package com.gzy.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * 去重后的历史市场指数序列点，以时间戳作为主键
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "market_index_history")
+public class MarketIndexPoint {
+
+    // 时间戳（毫秒）
+    @Id
+    private Long timestamp;
+
+    // 指数值
+    private Double index;
+}
@@ -0,0 +1,28 @@
+package com.gzy.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * 汇总任务的水位线，记录每个原始数据源已汇总到的时间
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "rollup_watermarks")
+public class RollupWatermark {
+
+    // 原始数据集合名称
+    @Id
+    private String source;
+
+    // 已汇总到的时间（不含）
+    private LocalDateTime watermark;
+}
@@ -5,6 +5,9 @@ import lombok.Data;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.IndexDirection;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -20,7 +23,8 @@ public class Statistics {
     @Id
     private String id;
 
-    // 创建时间
+    // 创建时间（最新采样和时间范围查询使用倒序索引）
+    @Indexed(name = "createTime", direction = IndexDirection.DESCENDING)
     private LocalDateTime createTime;
 
     // 市场指数
@@ -32,9 +36,16 @@ public class Statistics {
     // 昨日差值比率
     private Double diffYesterdayRatio;
 
-    // 历史市场指数列表 [[时间戳, 指数值], ...]
+    // 历史市场指数列表 [[时间戳, 指数值], ...]，不再持久化，读取时由 market_index_history 序列还原
+    @Transient
     private List<List<Double>> historyMarketIndexList;
 
+    // 本次抓取的历史市场指数起始时间戳
+    private Long historyMarketIndexFrom;
+
+    // 本次抓取的历史市场指数截止时间戳（水位线）
+    private Long historyMarketIndexTo;
+
     // 今日统计
     private TodayStatistics todayStatistics;
 
@@ -52,4 +63,10 @@ public class Statistics {
 
     // 涨跌天数
     private Integer riseFallDays;
+
+    // 采样内容哈希，用于判断上游数据是否变化
+    private String contentHash;
+
+    // 心跳记录所重复的采样ID（上游数据未变化时只记录心跳，读取时还原为该采样的数据）
+    private String repeatOf;
 }
@@ -0,0 +1,58 @@
+package com.gzy.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * 市场统计数据的分时汇总（OHLC），按分辨率分别存放在 steam_statistics_rollup_1m/1h/1d 集合
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document
+public class StatisticsRollup {
+
+    // 时间桶起始时间
+    @Id
+    private LocalDateTime bucketStart;
+
+    // 桶内采样数量
+    private Long count;
+
+    // 市场指数 开/高/低/收
+    private Double indexOpen;
+    private Double indexHigh;
+    private Double indexLow;
+    private Double indexClose;
+
+    // 市场指数之和（用于计算均值）
+    private Double indexSum;
+
+    // 最后一次采样的昨日差值比率
+    private Double diffRatioClose;
+
+    // 今日成交额 开/高/低/收
+    private Double turnoverOpen;
+    private Double turnoverHigh;
+    private Double turnoverLow;
+    private Double turnoverClose;
+
+    // 今日成交额之和及有效采样数量
+    private Double turnoverSum;
+    private Long turnoverCount;
+
+    // 昨日成交额 收盘值及之和
+    private Double yesterdayTurnoverClose;
+    private Double yesterdayTurnoverSum;
+
+    // 最后一次采样的今日/昨日新增数量
+    private String addNumClose;
+    private String yesterdayAddNumClose;
+}
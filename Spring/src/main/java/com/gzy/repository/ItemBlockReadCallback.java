@@ -0,0 +1,81 @@
+package com.gzy.repository;
+
+import com.gzy.entity.ItemBlock;
+import com.gzy.service.ItemBlockDeltaCodec;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ItemBlock读取回调
+ * <p>
+ * 增量记录由所属关键帧和 delta 还原，心跳记录还原为所重复快照的数据，
+ * 使所有通过 ItemBlockRepository / MongoTemplate 的读取都得到完整快照。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemBlockReadCallback implements AfterConvertCallback<ItemBlock> {
+
+    private static final int CACHE_SIZE = 16;
+
+    // MongoTemplate 创建时依赖读取回调，这里延迟获取以避免循环依赖
+    private final ObjectProvider<MongoTemplate> mongoTemplateProvider;
+
+    // 最近被引用的关键帧/快照（ID -> 完整快照），相邻记录通常引用同一个关键帧
+    private final Map<String, ItemBlock> referencedCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ItemBlock> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    @Override
+    public ItemBlock onAfterConvert(ItemBlock entity, Document document, String collection) {
+        if (entity.getData() != null) {
+            return entity;
+        }
+
+        if (entity.getDelta() != null && entity.getKeyframeOf() != null) {
+            ItemBlock keyframe = findReferenced(entity.getKeyframeOf(), collection);
+            if (keyframe == null || keyframe.getData() == null) {
+                log.warn("增量记录 {} 引用的关键帧 {} 不存在", entity.getId(), entity.getKeyframeOf());
+                return entity;
+            }
+            entity.setData(ItemBlockDeltaCodec.apply(keyframe.getData(), entity.getDelta()));
+            entity.setDelta(null);
+        } else if (entity.getRepeatOf() != null) {
+            ItemBlock referenced = findReferenced(entity.getRepeatOf(), collection);
+            if (referenced == null) {
+                log.warn("心跳记录 {} 引用的快照 {} 不存在", entity.getId(), entity.getRepeatOf());
+                return entity;
+            }
+            entity.setData(referenced.getData());
+            entity.setContentHash(referenced.getContentHash());
+        }
+        return entity;
+    }
+
+    /**
+     * 读取被引用的关键帧或快照（已还原为完整数据）
+     */
+    private ItemBlock findReferenced(String id, String collection) {
+        ItemBlock referenced = referencedCache.get(id);
+        if (referenced == null) {
+            referenced = mongoTemplateProvider.getObject().findById(id, ItemBlock.class, collection);
+            if (referenced != null) {
+                referencedCache.put(id, referenced);
+            }
+        }
+        return referenced;
+    }
+}
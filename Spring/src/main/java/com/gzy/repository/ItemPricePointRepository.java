@@ -0,0 +1,17 @@
+package com.gzy.repository;
+
+import com.gzy.entity.ItemPricePoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ItemPricePointRepository extends MongoRepository<ItemPricePoint, String> {
+
+    /**
+     * 查询指定物品在某时间之后的序列点，按时间升序
+     */
+    List<ItemPricePoint> findByItemNameAndCreateTimeAfterOrderByCreateTimeAsc(String itemName, LocalDateTime start);
+}
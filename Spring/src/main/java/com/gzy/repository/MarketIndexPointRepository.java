@@ -0,0 +1,16 @@
+package com.gzy.repository;
+
+import com.gzy.entity.MarketIndexPoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MarketIndexPointRepository extends MongoRepository<MarketIndexPoint, Long> {
+
+    /**
+     * 按时间戳升序查询全部序列点
+     */
+    List<MarketIndexPoint> findAllByOrderByTimestampAsc();
+}
@@ -0,0 +1,77 @@
+package com.gzy.repository;
+
+import com.gzy.entity.Statistics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Statistics读取回调
+ * <p>
+ * 心跳记录只保存时间和所重复的采样ID，读取时还原为该采样的数据。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StatisticsReadCallback implements AfterConvertCallback<Statistics> {
+
+    private static final int CACHE_SIZE = 16;
+
+    // MongoTemplate 创建时依赖读取回调，这里延迟获取以避免循环依赖
+    private final ObjectProvider<MongoTemplate> mongoTemplateProvider;
+
+    // 最近被引用的采样（采样ID -> 采样）
+    private final Map<String, Statistics> referencedCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Statistics> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    @Override
+    public Statistics onAfterConvert(Statistics entity, Document document, String collection) {
+        if (entity.getRepeatOf() == null) {
+            return entity;
+        }
+
+        Statistics referenced = referencedCache.get(entity.getRepeatOf());
+        if (referenced == null) {
+            referenced = mongoTemplateProvider.getObject().findById(entity.getRepeatOf(), Statistics.class, collection);
+            if (referenced == null) {
+                log.warn("心跳记录 {} 引用的采样 {} 不存在", entity.getId(), entity.getRepeatOf());
+                return entity;
+            }
+            referencedCache.put(entity.getRepeatOf(), referenced);
+        }
+        return resolve(entity, referenced);
+    }
+
+    /**
+     * 将被引用采样的内容复制到心跳记录（保留心跳自己的ID和时间）
+     */
+    public static Statistics resolve(Statistics heartbeat, Statistics referenced) {
+        heartbeat.setBroadMarketIndex(referenced.getBroadMarketIndex());
+        heartbeat.setDiffYesterday(referenced.getDiffYesterday());
+        heartbeat.setDiffYesterdayRatio(referenced.getDiffYesterdayRatio());
+        heartbeat.setHistoryMarketIndexList(referenced.getHistoryMarketIndexList());
+        heartbeat.setHistoryMarketIndexFrom(referenced.getHistoryMarketIndexFrom());
+        heartbeat.setHistoryMarketIndexTo(referenced.getHistoryMarketIndexTo());
+        heartbeat.setTodayStatistics(referenced.getTodayStatistics());
+        heartbeat.setYesterdayStatistics(referenced.getYesterdayStatistics());
+        heartbeat.setSurviveNum(referenced.getSurviveNum());
+        heartbeat.setHoldersNum(referenced.getHoldersNum());
+        heartbeat.setRiseFallType(referenced.getRiseFallType());
+        heartbeat.setRiseFallDays(referenced.getRiseFallDays());
+        heartbeat.setContentHash(referenced.getContentHash());
+        return heartbeat;
+    }
+}
@@ -0,0 +1,26 @@
+package com.gzy.service;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONWriter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 使用fastjson2序列化；输出null字段，时间格式与Jackson的ISO格式兼容（固定输出毫秒）
+ */
+@Component
+@ConditionalOnProperty(name = "csgo.response-cache.serializer", havingValue = "fastjson2")
+public class Fastjson2ResponseSerializer implements ResponseSerializer {
+
+    private static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSS";
+
+    @Override
+    public String getName() {
+        return "fastjson2";
+    }
+
+    @Override
+    public byte[] serialize(Object body) {
+        return JSON.toJSONBytes(body, DATE_FORMAT, JSONWriter.Feature.WriteNulls);
+    }
+}
@@ -3,25 +3,46 @@ package com.gzy.service;
 import com.gzy.entity.ItemBlock;
 import com.gzy.entity.Statistics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class HomeViewService {
 
+    private static final int RECENT_LIMIT = 10;
+
     @Autowired
     private MongoTemplate mongoTemplate;
 
+    @Autowired
+    private LatestSnapshotStore latestSnapshotStore;
+
+    /**
+     * 最近的10条ItemBlock，按创建时间倒序；最新快照可能还在写入缓冲区中，以内存中的快照为准
+     */
     public List<ItemBlock> findRecentItemBlocks() {
-        Query query = new Query().limit(10);
-        return mongoTemplate.find(query, ItemBlock.class);
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "createTime", "_id")).limit(RECENT_LIMIT);
+        List<ItemBlock> recent = mongoTemplate.find(query, ItemBlock.class);
+
+        ItemBlock latest = latestSnapshotStore.getLatestItemBlock();
+        if (latest != null && recent.stream().noneMatch(itemBlock -> latest.getId().equals(itemBlock.getId()))) {
+            List<ItemBlock> merged = new ArrayList<>(RECENT_LIMIT);
+            merged.add(latest);
+            merged.addAll(recent.subList(0, Math.min(recent.size(), RECENT_LIMIT - 1)));
+            return merged;
+        }
+        return recent;
     }
 
+    /**
+     * 最新统计数据（含还原后的历史市场指数列表）
+     */
     public Statistics findLatestStatistics() {
-        Query query = new Query().limit(1);
-        return mongoTemplate.findOne(query, Statistics.class);
+        return latestSnapshotStore.getLatestStatistics().orElse(null);
     }
 }
@@ -0,0 +1,81 @@
+package com.gzy.service;
+
+import com.gzy.entity.ItemBlock;
+import com.gzy.entity.ItemBlockAnalysis;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * ItemBlock分析物化视图
+ * <p>
+ * 爬虫保存新快照后计算一次分析结果并写入 item_block_analysis（ID与快照ID相同），
+ * 分析接口只读取这一份小文档；心跳快照使用所重复快照的分析结果。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemBlockAnalysisService {
+
+    private final MongoTemplate mongoTemplate;
+    private final WriteBehindBuffer writeBehindBuffer;
+    private final LatestSnapshotStore latestSnapshotStore;
+
+    /**
+     * 计算并保存新快照的分析结果
+     */
+    public Mono<ItemBlockAnalysis> record(ItemBlock itemBlock) {
+        return Mono.justOrEmpty(ItemBlockAnalyzer.analyze(itemBlock))
+                .flatMap(writeBehindBuffer::submit);
+    }
+
+    /**
+     * 删除全部分析结果（ItemBlock数据被删除时调用）
+     */
+    public void deleteAll() {
+        mongoTemplate.remove(new Query(), ItemBlockAnalysis.class);
+    }
+
+    /**
+     * 最新快照的分析结果；分析文档尚未写入（写入缓冲区未刷新或历史数据）时直接计算
+     */
+    public ItemBlockAnalysis getLatest() {
+        ItemBlock latest = latestSnapshotStore.getLatestItemBlock();
+        if (latest == null || latest.getData() == null) {
+            return null;
+        }
+
+        String snapshotId = latest.getRepeatOf() != null ? latest.getRepeatOf() : latest.getId();
+        ItemBlockAnalysis analysis = mongoTemplate.findById(snapshotId, ItemBlockAnalysis.class);
+        if (analysis != null) {
+            return analysis;
+        }
+        log.debug("快照 {} 没有分析文档，直接计算", snapshotId);
+        return ItemBlockAnalyzer.analyze(latest);
+    }
+
+    /**
+     * 按快照ID获取历史分析结果，心跳快照返回其所重复快照的分析结果
+     */
+    public ItemBlockAnalysis findBySnapshotId(String snapshotId) {
+        ItemBlockAnalysis analysis = mongoTemplate.findById(snapshotId, ItemBlockAnalysis.class);
+        if (analysis != null) {
+            return analysis;
+        }
+
+        ItemBlock snapshot = mongoTemplate.findById(snapshotId, ItemBlock.class);
+        if (snapshot == null) {
+            return null;
+        }
+        if (snapshot.getRepeatOf() != null) {
+            analysis = mongoTemplate.findById(snapshot.getRepeatOf(), ItemBlockAnalysis.class);
+            if (analysis != null) {
+                return analysis;
+            }
+        }
+        return ItemBlockAnalyzer.analyze(snapshot);
+    }
+}
@@ -0,0 +1,153 @@
+package com.gzy.service;
+
+import com.gzy.entity.ItemBlock;
+import com.gzy.entity.ItemBlockAnalysis;
+import com.gzy.entity.ItemBlockCategory;
+import com.gzy.entity.ItemBlockCategoryAnalysis;
+import com.gzy.entity.ItemBlockData;
+import com.gzy.entity.ItemBlockItem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ItemBlock快照分析
+ * <p>
+ * 每个列表只遍历一次，同时得到平均值、最大/最小值、涨跌计数和名称映射所需的数据。
+ */
+public final class ItemBlockAnalyzer {
+
+    private ItemBlockAnalyzer() {
+    }
+
+    /**
+     * 分析完整快照，快照没有数据时返回null
+     */
+    public static ItemBlockAnalysis analyze(ItemBlock itemBlock) {
+        if (itemBlock == null || itemBlock.getData() == null) {
+            return null;
+        }
+
+        ItemBlockData data = itemBlock.getData();
+        return ItemBlockAnalysis.builder()
+                .id(itemBlock.getId())
+                .createTime(itemBlock.getCreateTime())
+                .hot(analyzeCategory(data.getHot()))
+                .itemTypeLevel1(analyzeCategory(data.getItemTypeLevel1()))
+                .itemTypeLevel2(analyzeCategory(data.getItemTypeLevel2()))
+                .itemTypeLevel3(analyzeCategory(data.getItemTypeLevel3()))
+                .build();
+    }
+
+    private static ItemBlockCategoryAnalysis analyzeCategory(ItemBlockCategory category) {
+        if (category == null) {
+            return null;
+        }
+
+        ItemBlockCategoryAnalysis analysis = new ItemBlockCategoryAnalysis();
+        analyzeDefaultList(category.getDefaultList(), analysis);
+        analyzeTopList(category.getTopList(), analysis);
+        analyzeBottomList(category.getBottomList(), analysis);
+        analysis.setItemsCount(analysis.getDefaultCount() + analysis.getTopItemsCount() + analysis.getBottomItemsCount());
+        return analysis;
+    }
+
+    private static void analyzeDefaultList(List<ItemBlockItem> items, ItemBlockCategoryAnalysis analysis) {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+
+        List<String> names = new ArrayList<>(items.size());
+        List<Double> rates = new ArrayList<>(items.size());
+        List<Double> indexes = new ArrayList<>(items.size());
+        double rateSum = 0;
+        int rateCount = 0;
+        long rising = 0;
+        long falling = 0;
+        double indexSum = 0;
+        int indexCount = 0;
+        double maxIndex = Double.NEGATIVE_INFINITY;
+        double minIndex = Double.POSITIVE_INFINITY;
+
+        for (ItemBlockItem item : items) {
+            Double rate = item.getRiseFallRate();
+            Double index = item.getIndex();
+            names.add(item.getName());
+            rates.add(rate);
+            indexes.add(index);
+
+            if (rate != null) {
+                rateSum += rate;
+                rateCount++;
+                if (rate >= 0) {
+                    rising++;
+                } else {
+                    falling++;
+                }
+            }
+            if (index != null) {
+                indexSum += index;
+                indexCount++;
+                maxIndex = Math.max(maxIndex, index);
+                minIndex = Math.min(minIndex, index);
+            }
+        }
+
+        analysis.setDefaultCount(items.size());
+        analysis.setNames(names);
+        analysis.setRiseFallRates(rates);
+        analysis.setIndexes(indexes);
+        analysis.setAvgRiseFallRate(rateCount > 0 ? rateSum / rateCount : 0.0);
+        analysis.setRisingItemsCount(rising);
+        analysis.setFallingItemsCount(falling);
+        analysis.setAvgIndex(indexCount > 0 ? indexSum / indexCount : 0.0);
+        analysis.setMaxIndex(indexCount > 0 ? maxIndex : 0.0);
+        analysis.setMinIndex(indexCount > 0 ? minIndex : 0.0);
+    }
+
+    private static void analyzeTopList(List<ItemBlockItem> items, ItemBlockCategoryAnalysis analysis) {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+
+        double sum = 0;
+        int count = 0;
+        double max = Double.NEGATIVE_INFINITY;
+        for (ItemBlockItem item : items) {
+            Double rate = item.getRiseFallRate();
+            if (rate != null) {
+                sum += rate;
+                count++;
+                max = Math.max(max, rate);
+            }
+        }
+
+        analysis.setTopItemsCount(items.size());
+        analysis.setTopListAvgRate(count > 0 ? sum / count : 0.0);
+        analysis.setTopListMaxRate(count > 0 ? max : 0.0);
+        analysis.setTopItem(items.get(0));
+    }
+
+    private static void analyzeBottomList(List<ItemBlockItem> items, ItemBlockCategoryAnalysis analysis) {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+
+        double sum = 0;
+        int count = 0;
+        double min = Double.POSITIVE_INFINITY;
+        for (ItemBlockItem item : items) {
+            Double rate = item.getRiseFallRate();
+            if (rate != null) {
+                sum += rate;
+                count++;
+                min = Math.min(min, rate);
+            }
+        }
+
+        analysis.setBottomItemsCount(items.size());
+        analysis.setBottomListAvgRate(count > 0 ? sum / count : 0.0);
+        analysis.setBottomListMinRate(count > 0 ? min : 0.0);
+        analysis.setBottomItem(items.get(0));
+    }
+}
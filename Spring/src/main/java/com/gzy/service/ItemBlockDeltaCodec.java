@@ -0,0 +1,195 @@
+package com.gzy.service;
+
+import com.gzy.entity.ItemBlockCategory;
+import com.gzy.entity.ItemBlockCategoryDelta;
+import com.gzy.entity.ItemBlockData;
+import com.gzy.entity.ItemBlockDelta;
+import com.gzy.entity.ItemBlockItem;
+import com.gzy.entity.ItemBlockListDelta;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * ItemBlock增量编码
+ * <p>
+ * 增量始终相对于关键帧计算（不链式依赖上一个增量），还原任意快照只需关键帧和它自己的增量。
+ * 列表内按物品名称对应，只记录数值变化或新进入列表的物品，以及成员/顺序变化后的名称顺序。
+ */
+public final class ItemBlockDeltaCodec {
+
+    private ItemBlockDeltaCodec() {
+    }
+
+    /**
+     * 计算 current 相对关键帧的增量；分类结构不同或变化过大时返回null，表示应写入新的关键帧
+     */
+    public static ItemBlockDelta encode(ItemBlockData keyframe, ItemBlockData current) {
+        if (keyframe == null || current == null) {
+            return null;
+        }
+
+        int[] counts = new int[2];
+        ItemBlockCategoryDelta[] categories = new ItemBlockCategoryDelta[4];
+        ItemBlockCategory[] keyframeCategories = categories(keyframe);
+        ItemBlockCategory[] currentCategories = categories(current);
+        for (int i = 0; i < categories.length; i++) {
+            if ((keyframeCategories[i] == null) != (currentCategories[i] == null)) {
+                return null;
+            }
+            if (currentCategories[i] != null) {
+                categories[i] = encodeCategory(keyframeCategories[i], currentCategories[i], counts);
+            }
+        }
+
+        // 超过一半的物品发生变化时，增量不再比关键帧小多少
+        if (counts[0] * 2 > counts[1]) {
+            return null;
+        }
+        return ItemBlockDelta.builder()
+                .hot(categories[0])
+                .itemTypeLevel1(categories[1])
+                .itemTypeLevel2(categories[2])
+                .itemTypeLevel3(categories[3])
+                .build();
+    }
+
+    /**
+     * 用关键帧和增量还原完整数据
+     */
+    public static ItemBlockData apply(ItemBlockData keyframe, ItemBlockDelta delta) {
+        return ItemBlockData.builder()
+                .hot(applyCategory(keyframe.getHot(), delta.getHot()))
+                .itemTypeLevel1(applyCategory(keyframe.getItemTypeLevel1(), delta.getItemTypeLevel1()))
+                .itemTypeLevel2(applyCategory(keyframe.getItemTypeLevel2(), delta.getItemTypeLevel2()))
+                .itemTypeLevel3(applyCategory(keyframe.getItemTypeLevel3(), delta.getItemTypeLevel3()))
+                .build();
+    }
+
+    private static ItemBlockCategory[] categories(ItemBlockData data) {
+        return new ItemBlockCategory[] {
+                data.getHot(), data.getItemTypeLevel1(), data.getItemTypeLevel2(), data.getItemTypeLevel3()
+        };
+    }
+
+    private static ItemBlockCategoryDelta encodeCategory(ItemBlockCategory keyframe, ItemBlockCategory current,
+            int[] counts) {
+        ItemBlockListDelta defaultList = encodeList(keyframe.getDefaultList(), current.getDefaultList(), counts);
+        ItemBlockListDelta topList = encodeList(keyframe.getTopList(), current.getTopList(), counts);
+        ItemBlockListDelta bottomList = encodeList(keyframe.getBottomList(), current.getBottomList(), counts);
+        if (defaultList == null && topList == null && bottomList == null) {
+            return null;
+        }
+        return ItemBlockCategoryDelta.builder()
+                .defaultList(defaultList)
+                .topList(topList)
+                .bottomList(bottomList)
+                .build();
+    }
+
+    private static ItemBlockCategory applyCategory(ItemBlockCategory keyframe, ItemBlockCategoryDelta delta) {
+        if (delta == null || keyframe == null) {
+            return keyframe;
+        }
+        return ItemBlockCategory.builder()
+                .defaultList(applyList(keyframe.getDefaultList(), delta.getDefaultList()))
+                .topList(applyList(keyframe.getTopList(), delta.getTopList()))
+                .bottomList(applyList(keyframe.getBottomList(), delta.getBottomList()))
+                .build();
+    }
+
+    /**
+     * 计算列表增量，counts[0] 累计变化的物品数，counts[1] 累计物品总数
+     */
+    private static ItemBlockListDelta encodeList(List<ItemBlockItem> keyframe, List<ItemBlockItem> current,
+            int[] counts) {
+        int size = current != null ? current.size() : 0;
+        counts[1] += size;
+        // 先比较再把 null 当作空列表，两边都为 null 时不产生增量，还原后仍为 null
+        if (Objects.equals(keyframe, current)) {
+            return null;
+        }
+        if (current == null) {
+            current = new ArrayList<>();
+        }
+
+        Map<String, ItemBlockItem> keyframeByName = indexByName(keyframe);
+        Map<String, ItemBlockItem> currentByName = indexByName(current);
+        if (keyframeByName == null || currentByName == null) {
+            counts[0] += size;
+            return ItemBlockListDelta.builder().items(current).build();
+        }
+
+        List<ItemBlockItem> changed = new ArrayList<>();
+        for (ItemBlockItem item : current) {
+            if (!item.equals(keyframeByName.get(item.getName()))) {
+                changed.add(item);
+            }
+        }
+        counts[0] += changed.size();
+
+        List<String> order = names(current);
+        return ItemBlockListDelta.builder()
+                .order(order.equals(names(keyframe)) ? null : order)
+                .changed(changed.isEmpty() ? null : changed)
+                .build();
+    }
+
+    private static List<ItemBlockItem> applyList(List<ItemBlockItem> keyframe, ItemBlockListDelta delta) {
+        if (delta == null) {
+            return keyframe;
+        }
+        if (delta.getItems() != null) {
+            return delta.getItems();
+        }
+
+        Map<String, ItemBlockItem> items = indexByName(keyframe);
+        if (items == null) {
+            items = new HashMap<>();
+        }
+        if (delta.getChanged() != null) {
+            for (ItemBlockItem item : delta.getChanged()) {
+                items.put(item.getName(), item);
+            }
+        }
+
+        List<String> order = delta.getOrder() != null ? delta.getOrder() : names(keyframe);
+        List<ItemBlockItem> result = new ArrayList<>(order.size());
+        for (String name : order) {
+            ItemBlockItem item = items.get(name);
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按名称建立索引，存在空名称或重复名称时返回null
+     */
+    private static Map<String, ItemBlockItem> indexByName(List<ItemBlockItem> list) {
+        if (list == null) {
+            return null;
+        }
+        Map<String, ItemBlockItem> result = new HashMap<>(list.size() * 2);
+        for (ItemBlockItem item : list) {
+            if (item == null || item.getName() == null || result.put(item.getName(), item) != null) {
+                return null;
+            }
+        }
+        return result;
+    }
+
+    private static List<String> names(List<ItemBlockItem> list) {
+        List<String> result = new ArrayList<>(list != null ? list.size() : 0);
+        if (list != null) {
+            for (ItemBlockItem item : list) {
+                result.add(item.getName());
+            }
+        }
+        return result;
+    }
+}
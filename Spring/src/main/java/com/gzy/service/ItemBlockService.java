@@ -1,30 +1,59 @@
 package com.gzy.service;
 
+import com.gzy.config.AnalysisCacheConfig;
 import com.gzy.entity.ItemBlock;
-import com.gzy.entity.ItemBlockCategory;
-import com.gzy.entity.ItemBlockData;
-import com.gzy.entity.ItemBlockItem;
+import com.gzy.entity.ItemBlockAnalysis;
+import com.gzy.entity.ItemBlockCategoryAnalysis;
+import com.gzy.entity.ItemPriceRollup;
 import com.gzy.repository.ItemBlockRepository;
+import com.gzy.util.ColumnarSeries;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@CacheConfig(cacheNames = AnalysisCacheConfig.ITEM_BLOCK_ANALYSIS, keyGenerator = AnalysisCacheConfig.ITEM_BLOCK_KEY_GENERATOR)
 public class ItemBlockService {
 
     private final ItemBlockRepository itemBlockRepository;
+    private final LatestSnapshotStore latestSnapshotStore;
+    private final ItemPriceSeriesService itemPriceSeriesService;
+    private final RollupService rollupService;
+    private final ItemBlockAnalysisService itemBlockAnalysisService;
+    private final ItemBlockSketchService itemBlockSketchService;
+
+    // 长时间窗口趋势图的目标数据点数量
+    private static final int TREND_TARGET_POINTS = 200;
 
     /**
      * 获取最新的ItemBlock数据
      */
     public ItemBlock getLatestItemBlock() {
-        return itemBlockRepository.findFirstByOrderByCreateTimeDesc();
+        return latestSnapshotStore.getLatestItemBlock();
+    }
+
+    /**
+     * 删除所有ItemBlock数据，连同由其派生的价格序列、分析结果、分位数草图和物品汇总，返回删除的快照数量
+     */
+    public long deleteAll() {
+        long count = itemBlockRepository.count();
+        itemBlockRepository.deleteAll();
+        itemPriceSeriesService.deleteAll();
+        itemBlockAnalysisService.deleteAll();
+        itemBlockSketchService.deleteAll();
+        rollupService.deleteItemRollups();
+        // 派生数据删除后再清空最新快照并重置爬虫状态
+        latestSnapshotStore.clearItemBlock();
+        return count;
     }
 
     /**
@@ -37,53 +66,30 @@ public class ItemBlockService {
     /**
      * 获取热门物品的涨跌幅统计
      */
+    @Cacheable
     public Map<String, Object> analyzeHotItemsRiseFall() {
-        ItemBlock latest = getLatestItemBlock();
-        if (latest == null || latest.getData() == null || latest.getData().getHot() == null) {
+        ItemBlockAnalysis analysis = itemBlockAnalysisService.getLatest();
+        if (analysis == null || analysis.getHot() == null) {
             return Collections.emptyMap();
         }
 
-        ItemBlockCategory hotCategory = latest.getData().getHot();
+        ItemBlockCategoryAnalysis hot = analysis.getHot();
 
         // 统计涨幅和跌幅分布
         Map<String, Object> result = new HashMap<>();
 
         // 统计涨幅榜数据
-        if (hotCategory.getTopList() != null && !hotCategory.getTopList().isEmpty()) {
-            List<ItemBlockItem> topItems = hotCategory.getTopList();
-
-            double avgRiseFallRate = topItems.stream()
-                    .mapToDouble(ItemBlockItem::getRiseFallRate)
-                    .average()
-                    .orElse(0.0);
-
-            double maxRiseFallRate = topItems.stream()
-                    .mapToDouble(ItemBlockItem::getRiseFallRate)
-                    .max()
-                    .orElse(0.0);
-
-            result.put("topListAvgRate", avgRiseFallRate);
-            result.put("topListMaxRate", maxRiseFallRate);
-            result.put("topItemsCount", topItems.size());
+        if (hot.getTopItemsCount() > 0) {
+            result.put("topListAvgRate", hot.getTopListAvgRate());
+            result.put("topListMaxRate", hot.getTopListMaxRate());
+            result.put("topItemsCount", hot.getTopItemsCount());
         }
 
         // 统计跌幅榜数据
-        if (hotCategory.getBottomList() != null && !hotCategory.getBottomList().isEmpty()) {
-            List<ItemBlockItem> bottomItems = hotCategory.getBottomList();
-
-            double avgRiseFallRate = bottomItems.stream()
-                    .mapToDouble(ItemBlockItem::getRiseFallRate)
-                    .average()
-                    .orElse(0.0);
-
-            double minRiseFallRate = bottomItems.stream()
-                    .mapToDouble(ItemBlockItem::getRiseFallRate)
-                    .min()
-                    .orElse(0.0);
-
-            result.put("bottomListAvgRate", avgRiseFallRate);
-            result.put("bottomListMinRate", minRiseFallRate);
-            result.put("bottomItemsCount", bottomItems.size());
+        if (hot.getBottomItemsCount() > 0) {
+            result.put("bottomListAvgRate", hot.getBottomListAvgRate());
+            result.put("bottomListMinRate", hot.getBottomListMinRate());
+            result.put("bottomItemsCount", hot.getBottomItemsCount());
         }
 
         return result;
@@ -92,65 +98,31 @@ public class ItemBlockService {
     /**
      * 获取物品类型的涨跌幅统计
      */
+    @Cacheable
     public Map<String, Object> analyzeItemTypeRiseFall(int level) {
-        ItemBlock latest = getLatestItemBlock();
-        if (latest == null || latest.getData() == null) {
+        ItemBlockAnalysis analysis = itemBlockAnalysisService.getLatest();
+        if (analysis == null) {
             return Collections.emptyMap();
         }
 
-        ItemBlockData data = latest.getData();
-        ItemBlockCategory category = null;
-
         // 选择对应级别的类型
-        switch (level) {
-            case 1:
-                category = data.getItemTypeLevel1();
-                break;
-            case 2:
-                category = data.getItemTypeLevel2();
-                break;
-            case 3:
-                category = data.getItemTypeLevel3();
-                break;
-            default:
-                return Collections.emptyMap();
-        }
-
-        if (category == null || category.getDefaultList() == null || category.getDefaultList().isEmpty()) {
+        ItemBlockCategoryAnalysis category = switch (level) {
+            case 1 -> analysis.getItemTypeLevel1();
+            case 2 -> analysis.getItemTypeLevel2();
+            case 3 -> analysis.getItemTypeLevel3();
+            default -> null;
+        };
+
+        if (category == null || category.getDefaultCount() == 0) {
             return Collections.emptyMap();
         }
 
         Map<String, Object> result = new HashMap<>();
-        List<ItemBlockItem> items = category.getDefaultList();
-
-        // 统计涨跌幅分布
-        Map<String, Double> nameToRateMap = items.stream()
-                .collect(Collectors.toMap(
-                        ItemBlockItem::getName,
-                        ItemBlockItem::getRiseFallRate,
-                        (rate1, rate2) -> rate1 // 如有重复键，保留第一个
-                ));
-
-        // 计算平均涨跌幅
-        double avgRiseFallRate = items.stream()
-                .mapToDouble(ItemBlockItem::getRiseFallRate)
-                .average()
-                .orElse(0.0);
-
-        // 统计涨幅和跌幅项目数量
-        long risingItemsCount = items.stream()
-                .filter(item -> item.getRiseFallRate() >= 0)
-                .count();
-
-        long fallingItemsCount = items.stream()
-                .filter(item -> item.getRiseFallRate() < 0)
-                .count();
-
-        result.put("nameToRateMap", nameToRateMap);
-        result.put("avgRiseFallRate", avgRiseFallRate);
-        result.put("risingItemsCount", risingItemsCount);
-        result.put("fallingItemsCount", fallingItemsCount);
-        result.put("totalItemsCount", items.size());
+        result.put("nameToRateMap", toNameMap(category.getNames(), category.getRiseFallRates()));
+        result.put("avgRiseFallRate", category.getAvgRiseFallRate());
+        result.put("risingItemsCount", category.getRisingItemsCount());
+        result.put("fallingItemsCount", category.getFallingItemsCount());
+        result.put("totalItemsCount", category.getDefaultCount());
 
         return result;
     }
@@ -158,71 +130,32 @@ public class ItemBlockService {
     /**
      * 获取指数统计数据
      */
+    @Cacheable
     public Map<String, Object> analyzeItemIndex(String categoryName) {
-        ItemBlock latest = getLatestItemBlock();
-        if (latest == null || latest.getData() == null) {
+        ItemBlockAnalysis analysis = itemBlockAnalysisService.getLatest();
+        if (analysis == null) {
             return Collections.emptyMap();
         }
 
-        ItemBlockData data = latest.getData();
-        ItemBlockCategory category = null;
-
         // 选择对应的分类
-        switch (categoryName.toLowerCase()) {
-            case "hot":
-                category = data.getHot();
-                break;
-            case "level1":
-            case "itemtypelevel1":
-                category = data.getItemTypeLevel1();
-                break;
-            case "level2":
-            case "itemtypelevel2":
-                category = data.getItemTypeLevel2();
-                break;
-            case "level3":
-            case "itemtypelevel3":
-                category = data.getItemTypeLevel3();
-                break;
-            default:
-                return Collections.emptyMap();
-        }
-
-        if (category == null || category.getDefaultList() == null || category.getDefaultList().isEmpty()) {
+        ItemBlockCategoryAnalysis category = switch (categoryName.toLowerCase()) {
+            case "hot" -> analysis.getHot();
+            case "level1", "itemtypelevel1" -> analysis.getItemTypeLevel1();
+            case "level2", "itemtypelevel2" -> analysis.getItemTypeLevel2();
+            case "level3", "itemtypelevel3" -> analysis.getItemTypeLevel3();
+            default -> null;
+        };
+
+        if (category == null || category.getDefaultCount() == 0) {
             return Collections.emptyMap();
         }
 
         Map<String, Object> result = new HashMap<>();
-        List<ItemBlockItem> items = category.getDefaultList();
-
-        // 统计指数分布
-        Map<String, Double> nameToIndexMap = items.stream()
-                .collect(Collectors.toMap(
-                        ItemBlockItem::getName,
-                        ItemBlockItem::getIndex,
-                        (index1, index2) -> index1 // 如有重复键，保留第一个
-                ));
-
-        // 计算平均指数
-        double avgIndex = items.stream()
-                .mapToDouble(ItemBlockItem::getIndex)
-                .average()
-                .orElse(0.0);
-
-        // 找出最高和最低指数
-        OptionalDouble maxIndex = items.stream()
-                .mapToDouble(ItemBlockItem::getIndex)
-                .max();
-
-        OptionalDouble minIndex = items.stream()
-                .mapToDouble(ItemBlockItem::getIndex)
-                .min();
-
-        result.put("nameToIndexMap", nameToIndexMap);
-        result.put("avgIndex", avgIndex);
-        result.put("maxIndex", maxIndex.isPresent() ? maxIndex.getAsDouble() : 0.0);
-        result.put("minIndex", minIndex.isPresent() ? minIndex.getAsDouble() : 0.0);
-        result.put("totalItemsCount", items.size());
+        result.put("nameToIndexMap", toNameMap(category.getNames(), category.getIndexes()));
+        result.put("avgIndex", category.getAvgIndex());
+        result.put("maxIndex", category.getMaxIndex());
+        result.put("minIndex", category.getMinIndex());
+        result.put("totalItemsCount", category.getDefaultCount());
 
         return result;
     }
@@ -230,23 +163,24 @@ public class ItemBlockService {
     /**
      * 统计数据总览
      */
+    @Cacheable
     public Map<String, Object> getItemBlockOverview() {
         ItemBlock latest = getLatestItemBlock();
-        if (latest == null || latest.getData() == null) {
+        ItemBlockAnalysis analysis = itemBlockAnalysisService.getLatest();
+        if (latest == null || analysis == null) {
             return Collections.emptyMap();
         }
 
         Map<String, Object> result = new HashMap<>();
-        ItemBlockData data = latest.getData();
 
         // 记录数据获取时间
         result.put("createTime", latest.getCreateTime());
 
         // 统计各分类项目数量
-        int hotItemsCount = countItemsInCategory(data.getHot());
-        int level1ItemsCount = countItemsInCategory(data.getItemTypeLevel1());
-        int level2ItemsCount = countItemsInCategory(data.getItemTypeLevel2());
-        int level3ItemsCount = countItemsInCategory(data.getItemTypeLevel3());
+        int hotItemsCount = countItems(analysis.getHot());
+        int level1ItemsCount = countItems(analysis.getItemTypeLevel1());
+        int level2ItemsCount = countItems(analysis.getItemTypeLevel2());
+        int level3ItemsCount = countItems(analysis.getItemTypeLevel3());
 
         result.put("hotItemsCount", hotItemsCount);
         result.put("level1ItemsCount", level1ItemsCount);
@@ -254,87 +188,65 @@ public class ItemBlockService {
         result.put("level3ItemsCount", level3ItemsCount);
         result.put("totalItemsCount", hotItemsCount + level1ItemsCount + level2ItemsCount + level3ItemsCount);
 
-        // 找出涨幅最高的项目
-        ItemBlockItem topRisingItem = null;
-        if (data.getHot() != null && data.getHot().getTopList() != null && !data.getHot().getTopList().isEmpty()) {
-            topRisingItem = data.getHot().getTopList().get(0);
-        }
-
-        // 找出跌幅最大的项目
-        ItemBlockItem topFallingItem = null;
-        if (data.getHot() != null && data.getHot().getBottomList() != null
-                && !data.getHot().getBottomList().isEmpty()) {
-            topFallingItem = data.getHot().getBottomList().get(0);
-        }
-
-        result.put("topRisingItem", topRisingItem);
-        result.put("topFallingItem", topFallingItem);
+        // 涨幅最高和跌幅最大的项目
+        result.put("topRisingItem", analysis.getHot() != null ? analysis.getHot().getTopItem() : null);
+        result.put("topFallingItem", analysis.getHot() != null ? analysis.getHot().getBottomItem() : null);
 
         return result;
     }
 
+    /**
+     * 按快照ID获取历史分析结果
+     */
+    public ItemBlockAnalysis getAnalysisBySnapshotId(String snapshotId) {
+        return itemBlockAnalysisService.findBySnapshotId(snapshotId);
+    }
+
     /**
      * 统计分类中的项目数量
      */
-    private int countItemsInCategory(ItemBlockCategory category) {
-        if (category == null) {
-            return 0;
-        }
+    private int countItems(ItemBlockCategoryAnalysis category) {
+        return category == null ? 0 : category.getItemsCount();
+    }
 
-        int count = 0;
-        if (category.getDefaultList() != null) {
-            count += category.getDefaultList().size();
-        }
-        if (category.getTopList() != null) {
-            count += category.getTopList().size();
-        }
-        if (category.getBottomList() != null) {
-            count += category.getBottomList().size();
+    /**
+     * 由名称和数值列表还原名称映射，名称重复时保留第一个
+     */
+    private Map<String, Double> toNameMap(List<String> names, List<Double> values) {
+        Map<String, Double> map = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            map.putIfAbsent(names.get(i), values.get(i));
         }
-
-        return count;
+        return map;
     }
 
     /**
-     * 获取物品价格趋势数据（最近7天）
+     * 获取物品价格趋势数据
+     * <p>
+     * 7天以内直接读取物品的原始序列；更长的时间窗口读取满足精度要求的最粗汇总数据。
      */
-    public Map<String, Object> getItemPriceTrend(String itemName) {
-        // 获取最近7天的数据
-        LocalDateTime end = LocalDateTime.now();
-        LocalDateTime start = end.minusDays(7);
+    @Cacheable
+    public Map<String, Object> getItemPriceTrend(String itemName, int days) {
+        if (days <= ItemPriceSeriesService.TREND_DAYS) {
+            return itemPriceSeriesService.getTrend(itemName, days);
+        }
 
-        List<ItemBlock> itemBlocks = itemBlockRepository.findByCreateTimeBetween(start, end);
+        LocalDateTime end = LocalDateTime.now();
+        LocalDateTime start = end.minusDays(days);
+        RollupResolution resolution = selectTrendResolution(start, end);
 
-        if (itemBlocks.isEmpty()) {
+        List<ItemPriceRollup> rollups = rollupService.findItemRollups(itemName, start, end, resolution);
+        if (rollups.isEmpty()) {
             return Collections.emptyMap();
         }
 
-        // 按时间排序
-        itemBlocks.sort(Comparator.comparing(ItemBlock::getCreateTime));
-
-        List<String> timeLabels = new ArrayList<>();
-        List<Double> indexValues = new ArrayList<>();
-        List<Double> riseFallRates = new ArrayList<>();
-
-        // 遍历每个时间点的数据
-        for (ItemBlock itemBlock : itemBlocks) {
-            if (itemBlock.getData() == null)
-                continue;
-
-            // 记录时间
-            timeLabels.add(itemBlock.getCreateTime().toString());
-
-            // 查找物品数据
-            ItemBlockItem itemData = findItemByName(itemBlock.getData(), itemName);
-
-            if (itemData != null) {
-                indexValues.add(itemData.getIndex());
-                riseFallRates.add(itemData.getRiseFallRate());
-            } else {
-                // 如果没找到数据，使用null表示
-                indexValues.add(null);
-                riseFallRates.add(null);
-            }
+        List<String> timeLabels = new ArrayList<>(rollups.size());
+        List<Double> indexValues = new ArrayList<>(rollups.size());
+        List<Double> riseFallRates = new ArrayList<>(rollups.size());
+        for (ItemPriceRollup rollup : rollups) {
+            timeLabels.add(rollup.getBucketStart().toString());
+            indexValues.add(rollup.getIndexClose());
+            riseFallRates.add(rollup.getRiseFallRateClose());
         }
 
         Map<String, Object> result = new HashMap<>();
@@ -342,67 +254,59 @@ public class ItemBlockService {
         result.put("timeLabels", timeLabels);
         result.put("indexValues", indexValues);
         result.put("riseFallRates", riseFallRates);
+        result.put("resolution", resolution.getUnit());
 
         return result;
     }
 
     /**
-     * 在ItemBlockData中查找指定名称的物品
-     */
-    private ItemBlockItem findItemByName(ItemBlockData data, String itemName) {
-        // 在热门分类中查找
-        ItemBlockItem item = findItemInCategory(data.getHot(), itemName);
-        if (item != null)
-            return item;
-
-        // 在一级类型中查找
-        item = findItemInCategory(data.getItemTypeLevel1(), itemName);
-        if (item != null)
-            return item;
-
-        // 在二级类型中查找
-        item = findItemInCategory(data.getItemTypeLevel2(), itemName);
-        if (item != null)
-            return item;
-
-        // 在三级类型中查找
-        return findItemInCategory(data.getItemTypeLevel3(), itemName);
-    }
-
-    /**
-     * 在分类中查找指定名称的物品
+     * 获取物品价格趋势数据（列式）：series 为 ts（epoch毫秒）、index、riseFallRate 三个并列数组
      */
-    private ItemBlockItem findItemInCategory(ItemBlockCategory category, String itemName) {
-        if (category == null)
-            return null;
-
-        // 在默认列表中查找
-        if (category.getDefaultList() != null) {
-            for (ItemBlockItem item : category.getDefaultList()) {
-                if (itemName.equals(item.getName())) {
-                    return item;
-                }
-            }
+    @Cacheable
+    public Map<String, Object> getItemPriceTrendColumnar(String itemName, int days) {
+        ColumnarSeries series;
+        String resolutionUnit;
+        if (days <= ItemPriceSeriesService.TREND_DAYS) {
+            series = itemPriceSeriesService.getTrendSeries(itemName, days);
+            resolutionUnit = "raw";
+        } else {
+            LocalDateTime end = LocalDateTime.now();
+            LocalDateTime start = end.minusDays(days);
+            RollupResolution resolution = selectTrendResolution(start, end);
+            List<ItemPriceRollup> rollups = rollupService.findItemRollups(itemName, start, end, resolution);
+            series = rollups.isEmpty() ? null : toColumnar(rollups);
+            resolutionUnit = resolution.getUnit();
         }
-
-        // 在涨幅榜中查找
-        if (category.getTopList() != null) {
-            for (ItemBlockItem item : category.getTopList()) {
-                if (itemName.equals(item.getName())) {
-                    return item;
-                }
-            }
+        if (series == null) {
+            return Collections.emptyMap();
         }
 
-        // 在跌幅榜中查找
-        if (category.getBottomList() != null) {
-            for (ItemBlockItem item : category.getBottomList()) {
-                if (itemName.equals(item.getName())) {
-                    return item;
-                }
-            }
+        Map<String, Object> result = new HashMap<>();
+        result.put("itemName", itemName);
+        result.put("series", series);
+        result.put("resolution", resolutionUnit);
+        return result;
+    }
+
+    private RollupResolution selectTrendResolution(LocalDateTime start, LocalDateTime end) {
+        return rollupService
+                .selectResolution(Duration.between(start, end), TREND_TARGET_POINTS,
+                        List.of(RollupResolution.HOUR, RollupResolution.DAY))
+                .orElse(RollupResolution.HOUR);
+    }
+
+    private ColumnarSeries toColumnar(List<ItemPriceRollup> rollups) {
+        long[] ts = new long[rollups.size()];
+        for (int i = 0; i < ts.length; i++) {
+            ts[i] = rollups.get(i).getBucketStart().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
         }
+        return ColumnarSeries.of(ts)
+                .column(ItemPriceSeriesService.INDEX_COLUMN, i -> valueOrNaN(rollups.get(i).getIndexClose()))
+                .column(ItemPriceSeriesService.RISE_FALL_RATE_COLUMN,
+                        i -> valueOrNaN(rollups.get(i).getRiseFallRateClose()));
+    }
 
-        return null;
+    private static double valueOrNaN(Double value) {
+        return value != null ? value : Double.NaN;
     }
 }
@@ -0,0 +1,254 @@
+package com.gzy.service;
+
+import com.gzy.entity.ItemBlock;
+import com.gzy.entity.ItemBlockCategory;
+import com.gzy.entity.ItemBlockData;
+import com.gzy.entity.ItemBlockItem;
+import com.gzy.entity.ItemBlockSketch;
+import com.tdunning.math.stats.MergingDigest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 涨跌幅与指数分布的分位数草图
+ * <p>
+ * 每个新快照的各分类默认列表写入当前小时的t-digest（每个分类、每个指标一个），每次更新后保存该小时的草图；
+ * 查询时合并窗口内各小时的草图，内存和耗时只与窗口小时数有关，与快照数量无关。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemBlockSketchService {
+
+    public static final String METRIC_RISE_FALL_RATE = "riseFallRate";
+    public static final String METRIC_INDEX = "index";
+    public static final List<String> CATEGORIES = List.of("hot", "level1", "level2", "level3");
+
+    // t-digest 压缩参数，越大越精确，草图越大
+    private static final double COMPRESSION = 100;
+
+    private static final Map<String, Function<ItemBlockItem, Double>> METRICS = Map.of(
+            METRIC_RISE_FALL_RATE, ItemBlockItem::getRiseFallRate,
+            METRIC_INDEX, ItemBlockItem::getIndex);
+
+    private final MongoTemplate mongoTemplate;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    // 当前小时的草图，键为文档ID
+    private final Map<String, Bucket> currentBuckets = new HashMap<>();
+
+    /**
+     * 将新快照写入当前小时的草图并保存
+     */
+    public Mono<Void> record(ItemBlock itemBlock) {
+        if (itemBlock == null || itemBlock.getData() == null || itemBlock.getCreateTime() == null) {
+            return Mono.empty();
+        }
+
+        // 首次写入某个小时时可能需要从MongoDB加载已有草图（重启后继续当前小时）
+        return Mono.fromCallable(() -> update(itemBlock))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(Flux::fromIterable)
+                .flatMap(reactiveMongoTemplate::save)
+                .then();
+    }
+
+    /**
+     * 计算窗口内某分类某指标的分位数和直方图
+     *
+     * @param category  分类：hot、level1、level2、level3
+     * @param metric    指标：riseFallRate、index
+     * @param start     窗口开始时间
+     * @param end       窗口结束时间
+     * @param quantiles 要计算的分位点（0~1）
+     * @param bins      直方图的等宽分箱数量
+     */
+    public Map<String, Object> getDistribution(String category, String metric, LocalDateTime start,
+                                               LocalDateTime end, List<Double> quantiles, int bins) {
+        Query query = Query.query(Criteria.where("category").is(category)
+                        .and("metric").is(metric)
+                        .and("bucketStart").gte(start.truncatedTo(ChronoUnit.HOURS)).lt(end))
+                .with(Sort.by(Sort.Direction.ASC, "bucketStart"));
+        query.fields().include("count", "min", "max", "digest");
+        List<ItemBlockSketch> sketches = mongoTemplate.find(query, ItemBlockSketch.class);
+
+        MergingDigest merged = new MergingDigest(COMPRESSION);
+        long count = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (ItemBlockSketch sketch : sketches) {
+            if (sketch.getDigest() == null || sketch.getCount() == null || sketch.getCount() == 0) {
+                continue;
+            }
+            merged.add(MergingDigest.fromBytes(ByteBuffer.wrap(sketch.getDigest())));
+            count += sketch.getCount();
+            min = Math.min(min, sketch.getMin());
+            max = Math.max(max, sketch.getMax());
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("category", category);
+        result.put("metric", metric);
+        result.put("startTime", start);
+        result.put("endTime", end);
+        result.put("bucketCount", sketches.size());
+        result.put("count", count);
+        if (count == 0) {
+            return result;
+        }
+
+        result.put("min", min);
+        result.put("max", max);
+
+        Map<String, Double> quantileValues = new LinkedHashMap<>();
+        for (Double q : quantiles) {
+            quantileValues.put(String.valueOf(q), merged.quantile(q));
+        }
+        result.put("quantiles", quantileValues);
+        result.put("histogram", histogram(merged, count, min, max, bins));
+        return result;
+    }
+
+    /**
+     * 删除全部草图和当前小时的内存草图（ItemBlock数据被删除时调用）
+     */
+    public synchronized void deleteAll() {
+        currentBuckets.clear();
+        mongoTemplate.remove(new Query(), ItemBlockSketch.class);
+    }
+
+    private synchronized List<ItemBlockSketch> update(ItemBlock itemBlock) {
+        LocalDateTime bucketStart = itemBlock.getCreateTime().truncatedTo(ChronoUnit.HOURS);
+        ItemBlockData data = itemBlock.getData();
+        ItemBlockCategory[] categories = {data.getHot(), data.getItemTypeLevel1(), data.getItemTypeLevel2(),
+                data.getItemTypeLevel3()};
+
+        List<ItemBlockSketch> changed = new ArrayList<>();
+        for (int i = 0; i < categories.length; i++) {
+            if (categories[i] == null || categories[i].getDefaultList() == null
+                    || categories[i].getDefaultList().isEmpty()) {
+                continue;
+            }
+            for (Map.Entry<String, Function<ItemBlockItem, Double>> metric : METRICS.entrySet()) {
+                Bucket bucket = bucketFor(CATEGORIES.get(i), metric.getKey(), bucketStart);
+                for (ItemBlockItem item : categories[i].getDefaultList()) {
+                    Double value = metric.getValue().apply(item);
+                    if (value != null && !value.isNaN()) {
+                        bucket.add(value);
+                    }
+                }
+                if (bucket.count > 0) {
+                    changed.add(bucket.toSketch());
+                }
+            }
+        }
+
+        // 丢弃已经过去的小时
+        currentBuckets.values().removeIf(bucket -> bucket.bucketStart.isBefore(bucketStart));
+        return changed;
+    }
+
+    private Bucket bucketFor(String category, String metric, LocalDateTime bucketStart) {
+        String id = category + "|" + metric + "|" + bucketStart;
+        Bucket bucket = currentBuckets.get(id);
+        if (bucket != null) {
+            return bucket;
+        }
+
+        bucket = new Bucket(id, category, metric, bucketStart);
+        ItemBlockSketch persisted = mongoTemplate.findById(id, ItemBlockSketch.class);
+        if (persisted != null && persisted.getDigest() != null && persisted.getCount() != null) {
+            bucket.digest.add(MergingDigest.fromBytes(ByteBuffer.wrap(persisted.getDigest())));
+            bucket.count = persisted.getCount();
+            bucket.min = persisted.getMin();
+            bucket.max = persisted.getMax();
+        }
+        currentBuckets.put(id, bucket);
+        return bucket;
+    }
+
+    /**
+     * 等宽直方图，各分箱的数量由草图的累积分布估算
+     */
+    private List<Map<String, Object>> histogram(MergingDigest digest, long count, double min, double max, int bins) {
+        List<Map<String, Object>> histogram = new ArrayList<>();
+        if (max <= min) {
+            bins = 1;
+        }
+        double width = (max - min) / bins;
+        double previousCdf = 0;
+        for (int i = 0; i < bins; i++) {
+            double lower = min + width * i;
+            double upper = i == bins - 1 ? max : lower + width;
+            double cdf = i == bins - 1 ? 1.0 : digest.cdf(upper);
+            Map<String, Object> bin = new LinkedHashMap<>();
+            bin.put("lower", lower);
+            bin.put("upper", upper);
+            bin.put("count", Math.round((cdf - previousCdf) * count));
+            histogram.add(bin);
+            previousCdf = cdf;
+        }
+        return histogram;
+    }
+
+    private static class Bucket {
+
+        private final String id;
+        private final String category;
+        private final String metric;
+        private final LocalDateTime bucketStart;
+        private final MergingDigest digest = new MergingDigest(COMPRESSION);
+        private long count;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        Bucket(String id, String category, String metric, LocalDateTime bucketStart) {
+            this.id = id;
+            this.category = category;
+            this.metric = metric;
+            this.bucketStart = bucketStart;
+        }
+
+        void add(double value) {
+            digest.add(value);
+            count++;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        ItemBlockSketch toSketch() {
+            digest.compress();
+            ByteBuffer buffer = ByteBuffer.allocate(digest.smallByteSize());
+            digest.asSmallBytes(buffer);
+            return ItemBlockSketch.builder()
+                    .id(id)
+                    .category(category)
+                    .metric(metric)
+                    .bucketStart(bucketStart)
+                    .count(count)
+                    .min(min)
+                    .max(max)
+                    .digest(buffer.array())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,460 @@
+package com.gzy.service;
+
+import com.gzy.entity.ItemBlock;
+import com.gzy.entity.ItemBlockCategory;
+import com.gzy.entity.ItemBlockData;
+import com.gzy.entity.ItemBlockItem;
+import com.gzy.entity.ItemPricePoint;
+import com.gzy.repository.ItemPricePointRepository;
+import com.gzy.util.ColumnarSeries;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * 物品价格序列服务
+ * <p>
+ * 爬虫每保存一个ItemBlock快照，就把其中每个物品的指数/涨跌率追加到 item_price_series 时间序列集合。
+ * 被查询过的物品会在内存中常驻最近7天的序列并随抓取增量更新，趋势查询只读取该物品自己的序列点。
+ * 上游数据未变化时只记录心跳，趋势查询将心跳还原为所重复快照的点。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemPriceSeriesService {
+
+    public static final int TREND_DAYS = 7;
+    // 列式趋势序列的列名
+    public static final String INDEX_COLUMN = "index";
+    public static final String RISE_FALL_RATE_COLUMN = "riseFallRate";
+    private static final int BACKFILL_BATCH_SIZE = 5000;
+
+    private final ItemPricePointRepository itemPricePointRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Value("${csgo.item-series.max-resident-items:200}")
+    private int maxResidentItems;
+
+    // 常驻内存的物品序列（物品名称 -> 序列）
+    private final ConcurrentHashMap<String, ItemSeries> residentSeries = new ConcurrentHashMap<>();
+
+    // 最近7天的心跳记录（心跳时间 -> 所重复快照的时间），心跳不写入序列，读取时视为重复点
+    private final ConcurrentSkipListMap<Long, Long> heartbeats = new ConcurrentSkipListMap<>();
+    private volatile boolean heartbeatsLoaded = false;
+
+    /**
+     * 确保序列集合以时间序列集合创建（物品名称作为metaField）
+     */
+    @PostConstruct
+    public void initCollection() {
+        try {
+            if (!mongoTemplate.collectionExists(ItemPricePoint.class)) {
+                mongoTemplate.createCollection(ItemPricePoint.class);
+                log.info("已创建物品价格时间序列集合 {}", mongoTemplate.getCollectionName(ItemPricePoint.class));
+            }
+        } catch (Exception e) {
+            log.error("初始化物品价格序列集合时发生错误: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 将快照中的物品数据追加到序列（非阻塞，供爬虫使用）
+     */
+    public Mono<Void> append(ItemBlock itemBlock) {
+        if (itemBlock == null || itemBlock.getData() == null || itemBlock.getCreateTime() == null) {
+            return Mono.empty();
+        }
+
+        List<ItemPricePoint> points = extractPoints(itemBlock.getData(), itemBlock.getCreateTime());
+        if (points.isEmpty()) {
+            return Mono.empty();
+        }
+
+        return reactiveMongoTemplate.insert(points, ItemPricePoint.class)
+                .then(Mono.fromRunnable(() -> {
+                    long timestamp = toEpochMilli(itemBlock.getCreateTime());
+                    long cutoff = timestamp - Duration.ofDays(TREND_DAYS).toMillis();
+                    for (ItemPricePoint point : points) {
+                        ItemSeries series = residentSeries.get(point.getItemName());
+                        if (series != null) {
+                            series.append(timestamp, point, cutoff);
+                        }
+                    }
+                    log.debug("物品价格序列追加 {} 个点", points.size());
+                }));
+    }
+
+    /**
+     * 记录心跳：上游数据未变化，heartbeatTime 时刻的各物品数据与 repeatOfTime 时刻的快照相同
+     */
+    public void appendRepeat(LocalDateTime heartbeatTime, LocalDateTime repeatOfTime) {
+        long timestamp = toEpochMilli(heartbeatTime);
+        heartbeats.put(timestamp, toEpochMilli(repeatOfTime));
+        heartbeats.headMap(timestamp - Duration.ofDays(TREND_DAYS).toMillis()).clear();
+    }
+
+    /**
+     * 删除全部序列点和内存中的序列、心跳（ItemBlock数据被删除时调用）；
+     * 时间序列集合重建后由 RetentionService 的定时任务重新设置过期时间
+     */
+    public void deleteAll() {
+        mongoTemplate.dropCollection(ItemPricePoint.class);
+        initCollection();
+        residentSeries.clear();
+        heartbeats.clear();
+        log.info("已删除全部物品价格序列");
+    }
+
+    /**
+     * 获取物品价格趋势数据（最近days天，不超过7天）
+     */
+    public Map<String, Object> getTrend(String itemName, int days) {
+        ColumnarSeries series = getTrendSeries(itemName, days);
+        if (series == null) {
+            return Collections.emptyMap();
+        }
+
+        long[] ts = series.getTs();
+        double[] indexValues = series.getColumns().get(INDEX_COLUMN);
+        double[] riseFallRates = series.getColumns().get(RISE_FALL_RATE_COLUMN);
+        List<String> timeLabels = new ArrayList<>(ts.length);
+        List<Double> indexList = new ArrayList<>(ts.length);
+        List<Double> rateList = new ArrayList<>(ts.length);
+        for (int i = 0; i < ts.length; i++) {
+            timeLabels.add(LocalDateTime.ofInstant(Instant.ofEpochMilli(ts[i]), ZoneId.systemDefault()).toString());
+            indexList.add(toBoxed(indexValues[i]));
+            rateList.add(toBoxed(riseFallRates[i]));
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("itemName", itemName);
+        result.put("timeLabels", timeLabels);
+        result.put("indexValues", indexList);
+        result.put("riseFallRates", rateList);
+        return result;
+    }
+
+    /**
+     * 最近days天（最多7天）的列式趋势序列（列：index、riseFallRate），物品不存在时返回null
+     */
+    public ColumnarSeries getTrendSeries(String itemName, int days) {
+        LocalDateTime start = LocalDateTime.now().minusDays(TREND_DAYS);
+        long cutoff = toEpochMilli(LocalDateTime.now().minusDays(Math.min(days, TREND_DAYS)));
+
+        ItemSeries series = residentSeries.computeIfAbsent(itemName, name -> new ItemSeries());
+        series.lastAccess = System.currentTimeMillis();
+        series.loadIfNecessary(() -> itemPricePointRepository
+                .findByItemNameAndCreateTimeAfterOrderByCreateTimeAsc(itemName, start));
+
+        loadHeartbeatsIfNecessary(start);
+        ColumnarSeries result = series.toTrend(cutoff, heartbeats);
+        if (result == null) {
+            // 不存在的物品不常驻内存
+            residentSeries.remove(itemName, series);
+        } else {
+            evictIfNecessary();
+        }
+        return result;
+    }
+
+    private static Double toBoxed(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    /**
+     * 首次查询趋势时加载最近7天的心跳记录
+     */
+    private void loadHeartbeatsIfNecessary(LocalDateTime start) {
+        if (heartbeatsLoaded) {
+            return;
+        }
+        synchronized (heartbeats) {
+            if (heartbeatsLoaded) {
+                return;
+            }
+            Query query = Query.query(Criteria.where("createTime").gte(start).and("repeatOf").exists(true));
+            query.fields().include("createTime", "repeatOfTime");
+            for (ItemBlock heartbeat : mongoTemplate.find(query, ItemBlock.class)) {
+                if (heartbeat.getRepeatOfTime() != null) {
+                    heartbeats.putIfAbsent(toEpochMilli(heartbeat.getCreateTime()), toEpochMilli(heartbeat.getRepeatOfTime()));
+                }
+            }
+            heartbeatsLoaded = true;
+            log.info("已加载物品价格序列心跳记录，共 {} 条", heartbeats.size());
+        }
+    }
+
+    /**
+     * 序列集合为空时，用最近7天的ItemBlock快照回填
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillFromItemBlocks() {
+        try {
+            if (itemPricePointRepository.count() > 0) {
+                return;
+            }
+
+            // 心跳记录不产生序列点；增量记录读取时由关键帧还原
+            Query query = Query.query(Criteria.where("createTime").gte(LocalDateTime.now().minusDays(TREND_DAYS))
+                            .and("repeatOf").exists(false)
+                            .orOperator(Criteria.where("data").ne(null), Criteria.where("delta").ne(null)))
+                    .with(Sort.by(Sort.Direction.ASC, "createTime"));
+
+            List<ItemPricePoint> batch = new ArrayList<>(BACKFILL_BATCH_SIZE);
+            long total = 0;
+            try (Stream<ItemBlock> itemBlocks = mongoTemplate.stream(query, ItemBlock.class)) {
+                Iterator<ItemBlock> iterator = itemBlocks.iterator();
+                while (iterator.hasNext()) {
+                    ItemBlock itemBlock = iterator.next();
+                    if (itemBlock.getData() != null) {
+                        batch.addAll(extractPoints(itemBlock.getData(), itemBlock.getCreateTime()));
+                    }
+                    if (batch.size() >= BACKFILL_BATCH_SIZE) {
+                        itemPricePointRepository.insert(batch);
+                        total += batch.size();
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                itemPricePointRepository.insert(batch);
+                total += batch.size();
+            }
+            if (total > 0) {
+                log.info("物品价格序列回填完成，共 {} 个点", total);
+            }
+        } catch (Exception e) {
+            log.error("回填物品价格序列时发生错误: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 提取快照中的物品序列点，同名物品按 热门 -> 一级 -> 二级 -> 三级、默认 -> 涨幅 -> 跌幅 的顺序取第一个
+     */
+    private List<ItemPricePoint> extractPoints(ItemBlockData data, LocalDateTime createTime) {
+        Map<String, ItemBlockItem> items = new LinkedHashMap<>();
+        for (ItemBlockCategory category : Arrays.asList(
+                data.getHot(), data.getItemTypeLevel1(), data.getItemTypeLevel2(), data.getItemTypeLevel3())) {
+            if (category == null) {
+                continue;
+            }
+            collectItems(items, category.getDefaultList());
+            collectItems(items, category.getTopList());
+            collectItems(items, category.getBottomList());
+        }
+
+        List<ItemPricePoint> points = new ArrayList<>(items.size());
+        for (ItemBlockItem item : items.values()) {
+            points.add(ItemPricePoint.builder()
+                    .itemName(item.getName())
+                    .createTime(createTime)
+                    .index(item.getIndex())
+                    .riseFallRate(item.getRiseFallRate())
+                    .riseFallDiff(item.getRiseFallDiff())
+                    .build());
+        }
+        return points;
+    }
+
+    private void collectItems(Map<String, ItemBlockItem> items, List<ItemBlockItem> list) {
+        if (list == null) {
+            return;
+        }
+        for (ItemBlockItem item : list) {
+            if (item != null && item.getName() != null) {
+                items.putIfAbsent(item.getName(), item);
+            }
+        }
+    }
+
+    /**
+     * 常驻物品数超过上限时淘汰最久未访问的序列
+     */
+    private void evictIfNecessary() {
+        while (residentSeries.size() > maxResidentItems) {
+            residentSeries.entrySet().stream()
+                    .min(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                    .ifPresent(entry -> residentSeries.remove(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private static long toEpochMilli(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 单个物品的内存序列，使用原始类型数组按时间升序存储
+     */
+    private static final class ItemSeries {
+
+        private long[] times = new long[64];
+        private double[] indexes = new double[64];
+        private double[] rates = new double[64];
+        private int start = 0;
+        private int end = 0;
+        private volatile boolean loaded = false;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        synchronized void append(long timestamp, ItemPricePoint point, long cutoff) {
+            if (end > start && times[end - 1] >= timestamp) {
+                return;
+            }
+            while (start < end && times[start] < cutoff) {
+                start++;
+            }
+            if (end == times.length) {
+                compact(end - start + 1);
+            }
+            times[end] = timestamp;
+            indexes[end] = toPrimitive(point.getIndex());
+            rates[end] = toPrimitive(point.getRiseFallRate());
+            end++;
+        }
+
+        /**
+         * 首次访问时从MongoDB加载，加载前已追加的点保留在末尾
+         * <p>
+         * 查询在锁外执行，不阻塞响应式链上的 append；并发的首次访问可能各查询一次，只有先完成的合并生效。
+         */
+        void loadIfNecessary(Supplier<List<ItemPricePoint>> loader) {
+            if (loaded) {
+                return;
+            }
+            List<ItemPricePoint> points = loader.get();
+            merge(points);
+        }
+
+        /**
+         * 合并加载的点：只取早于内存中第一个点的部分，加载期间追加的点已在内存中
+         */
+        private synchronized void merge(List<ItemPricePoint> points) {
+            if (loaded) {
+                return;
+            }
+            long firstAppended = end > start ? times[start] : Long.MAX_VALUE;
+
+            int count = 0;
+            for (ItemPricePoint point : points) {
+                if (toEpochMilli(point.getCreateTime()) < firstAppended) {
+                    count++;
+                }
+            }
+
+            int appended = end - start;
+            long[] newTimes = new long[Math.max(64, (count + appended) * 2)];
+            double[] newIndexes = new double[newTimes.length];
+            double[] newRates = new double[newTimes.length];
+            for (int i = 0; i < count; i++) {
+                ItemPricePoint point = points.get(i);
+                newTimes[i] = toEpochMilli(point.getCreateTime());
+                newIndexes[i] = toPrimitive(point.getIndex());
+                newRates[i] = toPrimitive(point.getRiseFallRate());
+            }
+            System.arraycopy(times, start, newTimes, count, appended);
+            System.arraycopy(indexes, start, newIndexes, count, appended);
+            System.arraycopy(rates, start, newRates, count, appended);
+
+            times = newTimes;
+            indexes = newIndexes;
+            rates = newRates;
+            start = 0;
+            end = count + appended;
+            loaded = true;
+        }
+
+        /**
+         * 生成趋势数据；某个点之后、下一个点之前引用该点时间的心跳，作为该点的重复点输出
+         */
+        synchronized ColumnarSeries toTrend(long cutoff, NavigableMap<Long, Long> heartbeats) {
+            int first = start;
+            while (first < end && times[first] < cutoff) {
+                first++;
+            }
+            // 窗口前的最后一个点可能被窗口内的心跳重复
+            int from = first > start ? first - 1 : first;
+            if (from == end) {
+                return null;
+            }
+
+            int capacity = end - from;
+            long[] trendTimes = new long[capacity];
+            double[] trendIndexes = new double[capacity];
+            double[] trendRates = new double[capacity];
+            int size = 0;
+            for (int i = from; i < end; i++) {
+                NavigableMap<Long, Long> repeats = heartbeats.subMap(times[i],
+                        false, i + 1 < end ? times[i + 1] : Long.MAX_VALUE, false);
+                int required = size + 1 + repeats.size();
+                if (required > trendTimes.length) {
+                    int grown = Math.max(required, trendTimes.length * 2);
+                    trendTimes = Arrays.copyOf(trendTimes, grown);
+                    trendIndexes = Arrays.copyOf(trendIndexes, grown);
+                    trendRates = Arrays.copyOf(trendRates, grown);
+                }
+                if (times[i] >= cutoff) {
+                    trendTimes[size] = times[i];
+                    trendIndexes[size] = indexes[i];
+                    trendRates[size] = rates[i];
+                    size++;
+                }
+                for (Map.Entry<Long, Long> heartbeat : repeats.entrySet()) {
+                    if (heartbeat.getKey() >= cutoff && heartbeat.getValue() == times[i]) {
+                        trendTimes[size] = heartbeat.getKey();
+                        trendIndexes[size] = indexes[i];
+                        trendRates[size] = rates[i];
+                        size++;
+                    }
+                }
+            }
+            if (size == 0) {
+                return null;
+            }
+
+            return ColumnarSeries.of(Arrays.copyOf(trendTimes, size))
+                    .column(INDEX_COLUMN, Arrays.copyOf(trendIndexes, size))
+                    .column(RISE_FALL_RATE_COLUMN, Arrays.copyOf(trendRates, size));
+        }
+
+        private void compact(int required) {
+            int size = end - start;
+            int capacity = Math.max(64, Math.max(required, size) * 2);
+            long[] newTimes = new long[capacity];
+            double[] newIndexes = new double[capacity];
+            double[] newRates = new double[capacity];
+            System.arraycopy(times, start, newTimes, 0, size);
+            System.arraycopy(indexes, start, newIndexes, 0, size);
+            System.arraycopy(rates, start, newRates, 0, size);
+            times = newTimes;
+            indexes = newIndexes;
+            rates = newRates;
+            start = 0;
+            end = size;
+        }
+
+        private static double toPrimitive(Double value) {
+            return value != null ? value : Double.NaN;
+        }
+
+    }
+}
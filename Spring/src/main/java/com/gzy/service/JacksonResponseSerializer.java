@@ -0,0 +1,32 @@
+package com.gzy.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 使用Spring MVC同一个ObjectMapper序列化，输出与普通接口完全一致
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "csgo.response-cache.serializer", havingValue = "jackson", matchIfMissing = true)
+public class JacksonResponseSerializer implements ResponseSerializer {
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public String getName() {
+        return "jackson";
+    }
+
+    @Override
+    public byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("序列化响应失败: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.gzy.service;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 游标（keyset）分页服务
+ * <p>
+ * 按 (createTime, _id) 倒序分页，续页令牌记录上一页最后一条记录的键值，
+ * 下一页直接从该位置向后查找，无需 skip，任意页的代价都与第一页相同。
+ */
+@Service
+@RequiredArgsConstructor
+public class KeysetPaginationService {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * 查询一页数据
+     *
+     * @param cursor      上一页返回的续页令牌，为空表示第一页
+     * @param size        每页数量
+     * @param withTotal   是否返回总记录数（需要额外的count查询）
+     * @param idGetter    实体ID
+     * @param timeGetter  实体创建时间
+     */
+    public <T> Map<String, Object> page(Class<T> entityClass, String cursor, int size, boolean withTotal,
+            Function<T, String> idGetter, Function<T, LocalDateTime> timeGetter) {
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.DESC, "createTime").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .limit(size + 1);
+        if (cursor != null && !cursor.isEmpty()) {
+            query.addCriteria(afterCursor(cursor));
+        }
+
+        List<T> content = mongoTemplate.find(query, entityClass);
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = content.subList(0, size);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("content", content);
+        result.put("size", content.size());
+        result.put("hasNext", hasNext);
+        if (hasNext) {
+            T last = content.get(content.size() - 1);
+            result.put("nextCursor", encodeCursor(timeGetter.apply(last), idGetter.apply(last)));
+        } else {
+            result.put("nextCursor", null);
+        }
+        if (withTotal) {
+            result.put("totalElements", mongoTemplate.count(new Query(), entityClass));
+        }
+        return result;
+    }
+
+    /**
+     * 令牌之后的记录：createTime 更早，或 createTime 相同且 _id 更小
+     */
+    private Criteria afterCursor(String cursor) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的续页令牌: " + cursor);
+        }
+
+        String[] parts = decoded.split(":", 2);
+        if (parts.length != 2 || !ObjectId.isValid(parts[1])) {
+            throw new IllegalArgumentException("无效的续页令牌: " + cursor);
+        }
+
+        LocalDateTime createTime;
+        try {
+            createTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(parts[0])), ZoneId.systemDefault());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的续页令牌: " + cursor);
+        }
+        ObjectId id = new ObjectId(parts[1]);
+
+        return new Criteria().orOperator(
+                Criteria.where("createTime").lt(createTime),
+                Criteria.where("createTime").is(createTime).and("_id").lt(id));
+    }
+
+    private String encodeCursor(LocalDateTime createTime, String id) {
+        long epochMilli = createTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((epochMilli + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,132 @@
+package com.gzy.service;
+
+import com.gzy.entity.ItemBlock;
+import com.gzy.entity.Statistics;
+import com.gzy.repository.ItemBlockRepository;
+import com.gzy.repository.StatisticsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * 最新快照内存存储
+ * <p>
+ * 爬虫在快照及其派生数据确认写入MongoDB后将最新的ItemBlock和Statistics发布到这里，
+ * 读取"最新数据"的接口直接从内存获取，仅在冷启动时回退查询MongoDB。
+ * 快照变更时发布 SnapshotPublishedEvent，监听方（如分析结果缓存）此时重新查询能读到新快照。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LatestSnapshotStore {
+
+    private final ItemBlockRepository itemBlockRepository;
+    private final StatisticsRepository statisticsRepository;
+    private final MarketIndexHistoryService marketIndexHistoryService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicReference<ItemBlock> latestItemBlock = new AtomicReference<>();
+    private final AtomicReference<Statistics> latestStatistics = new AtomicReference<>();
+
+    /**
+     * 发布新保存的ItemBlock；落库后的处理在后台完成，先后顺序不定，不会用更早的快照替换已发布的快照
+     */
+    public void publishItemBlock(ItemBlock itemBlock) {
+        if (itemBlock != null && latestItemBlock.accumulateAndGet(itemBlock,
+                (current, candidate) -> newer(current, candidate, ItemBlock::getCreateTime)) == itemBlock) {
+            eventPublisher.publishEvent(new SnapshotPublishedEvent(this, SnapshotPublishedEvent.Kind.ITEM_BLOCK));
+        }
+    }
+
+    /**
+     * 发布新保存的Statistics；不会用更早的采样替换已发布的采样
+     */
+    public void publishStatistics(Statistics statistics) {
+        if (statistics != null && latestStatistics.accumulateAndGet(statistics,
+                (current, candidate) -> newer(current, candidate, Statistics::getCreateTime)) == statistics) {
+            eventPublisher.publishEvent(new SnapshotPublishedEvent(this, SnapshotPublishedEvent.Kind.STATISTICS));
+        }
+    }
+
+    /**
+     * 获取最新的ItemBlock，内存为空时从MongoDB加载
+     */
+    public ItemBlock getLatestItemBlock() {
+        ItemBlock current = latestItemBlock.get();
+        if (current != null) {
+            return current;
+        }
+
+        ItemBlock loaded = itemBlockRepository.findFirstByOrderByCreateTimeDesc();
+        if (loaded == null) {
+            return null;
+        }
+        log.debug("最新ItemBlock快照冷启动加载，ID: {}", loaded.getId());
+        // 加载期间爬虫可能已发布更新的快照，此时以爬虫发布的为准
+        return latestItemBlock.compareAndSet(null, loaded) ? loaded : latestItemBlock.get();
+    }
+
+    /**
+     * 获取最新的Statistics，内存为空时从MongoDB加载
+     */
+    public Optional<Statistics> getLatestStatistics() {
+        Statistics current = latestStatistics.get();
+        if (current != null) {
+            return Optional.of(current);
+        }
+
+        Statistics loaded = marketIndexHistoryService.hydrate(statisticsRepository.findFirstByOrderByCreateTimeDesc());
+        if (loaded == null) {
+            return Optional.empty();
+        }
+        log.debug("最新Statistics快照冷启动加载，ID: {}", loaded.getId());
+        return Optional.ofNullable(latestStatistics.compareAndSet(null, loaded) ? loaded : latestStatistics.get());
+    }
+
+    /**
+     * 最新ItemBlock快照的版本，没有快照时返回null
+     */
+    public SnapshotVersion getItemBlockVersion() {
+        return SnapshotVersion.of(getLatestItemBlock());
+    }
+
+    /**
+     * 最新Statistics快照的版本，没有快照时返回null
+     */
+    public SnapshotVersion getStatisticsVersion() {
+        return getLatestStatistics().map(SnapshotVersion::of).orElse(null);
+    }
+
+    private static <T> T newer(T current, T candidate, Function<T, LocalDateTime> createTime) {
+        if (current == null) {
+            return candidate;
+        }
+        LocalDateTime currentTime = createTime.apply(current);
+        LocalDateTime candidateTime = createTime.apply(candidate);
+        return currentTime != null && candidateTime != null && candidateTime.isBefore(currentTime) ? current : candidate;
+    }
+
+    /**
+     * 清空ItemBlock快照（数据被删除后调用），同时通知爬虫丢弃指向已删除快照的状态
+     */
+    public void clearItemBlock() {
+        latestItemBlock.set(null);
+        eventPublisher.publishEvent(new SnapshotsClearedEvent(this, SnapshotPublishedEvent.Kind.ITEM_BLOCK));
+        eventPublisher.publishEvent(new SnapshotPublishedEvent(this, SnapshotPublishedEvent.Kind.ITEM_BLOCK));
+    }
+
+    /**
+     * 清空Statistics快照（数据被删除后调用），同时通知爬虫丢弃指向已删除采样的状态
+     */
+    public void clearStatistics() {
+        latestStatistics.set(null);
+        eventPublisher.publishEvent(new SnapshotsClearedEvent(this, SnapshotPublishedEvent.Kind.STATISTICS));
+        eventPublisher.publishEvent(new SnapshotPublishedEvent(this, SnapshotPublishedEvent.Kind.STATISTICS));
+    }
+}
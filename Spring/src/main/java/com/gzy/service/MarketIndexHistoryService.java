@@ -0,0 +1,231 @@
+package com.gzy.service;
+
+import com.gzy.entity.MarketIndexPoint;
+import com.gzy.entity.Statistics;
+import com.gzy.repository.MarketIndexPointRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 历史市场指数序列服务
+ * <p>
+ * 上游每次返回完整的 [[时间戳, 指数值], ...] 列表，这里只将未出现过的时间戳追加到
+ * market_index_history 序列中，Statistics 文档仅记录本次列表覆盖的时间范围。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MarketIndexHistoryService {
+
+    private static final String STATISTICS_COLLECTION = "steam_statistics";
+    private static final String HISTORY_FIELD = "historyMarketIndexList";
+
+    private final MarketIndexPointRepository marketIndexPointRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    // 内存中的完整序列（时间戳 -> 指数值）；重新加载时整体替换，写入在 this 上串行，避免替换时丢点
+    private volatile ConcurrentSkipListMap<Long, Double> series = new ConcurrentSkipListMap<>();
+    private volatile boolean loaded = false;
+
+    /**
+     * 记录Statistics携带的历史列表的时间范围（写入缓冲区前调用，文档中只保存该范围）
+     */
+    public void mark(Statistics statistics) {
+        Long from = null;
+        Long to = null;
+        List<List<Double>> historyList = statistics.getHistoryMarketIndexList();
+        if (historyList != null) {
+            for (List<Double> point : historyList) {
+                if (point == null || point.size() < 2 || point.get(0) == null) {
+                    continue;
+                }
+                long timestamp = point.get(0).longValue();
+                from = from == null ? timestamp : Math.min(from, timestamp);
+                to = to == null ? timestamp : Math.max(to, timestamp);
+            }
+        }
+        statistics.setHistoryMarketIndexFrom(from);
+        statistics.setHistoryMarketIndexTo(to);
+    }
+
+    /**
+     * 将Statistics携带的历史列表中新出现或被修正的点追加到序列（非阻塞，供爬虫使用）
+     */
+    public Mono<Void> append(Statistics statistics) {
+        List<List<Double>> historyList = statistics.getHistoryMarketIndexList();
+        if (historyList == null || historyList.isEmpty()) {
+            return Mono.empty();
+        }
+
+        return loadIfNecessary().then(Mono.defer(() -> {
+            List<MarketIndexPoint> newPoints = new ArrayList<>();
+            for (List<Double> point : historyList) {
+                if (point == null || point.size() < 2 || point.get(0) == null) {
+                    continue;
+                }
+                long timestamp = point.get(0).longValue();
+                Double index = point.get(1);
+
+                // 仅写入新时间戳；已有时间戳的值被上游修正时（通常是当天的最后一个点）同样覆盖写入
+                Double previous = series.get(timestamp);
+                if (previous == null || !Objects.equals(previous, index)) {
+                    newPoints.add(MarketIndexPoint.builder().timestamp(timestamp).index(index).build());
+                }
+            }
+            if (newPoints.isEmpty()) {
+                return Mono.<Void>empty();
+            }
+
+            // 首次抓取会写入完整列表，一次批量upsert写出全部新点
+            ReactiveBulkOperations bulkOps = reactiveMongoTemplate.bulkOps(BulkMode.UNORDERED, MarketIndexPoint.class);
+            for (MarketIndexPoint point : newPoints) {
+                bulkOps.upsert(Query.query(Criteria.where("_id").is(point.getTimestamp())),
+                        Update.update("index", point.getIndex()));
+            }
+            return bulkOps.execute()
+                    .then(Mono.fromRunnable(() -> {
+                        synchronized (this) {
+                            newPoints.forEach(point -> series.put(point.getTimestamp(), point.getIndex()));
+                        }
+                        log.info("历史市场指数序列追加 {} 个点", newPoints.size());
+                    }));
+        }));
+    }
+
+    /**
+     * 根据Statistics记录的时间范围还原历史市场指数列表
+     */
+    public Statistics hydrate(Statistics statistics) {
+        if (statistics == null || statistics.getHistoryMarketIndexList() != null
+                || statistics.getHistoryMarketIndexFrom() == null || statistics.getHistoryMarketIndexTo() == null) {
+            return statistics;
+        }
+        ensureLoaded();
+
+        NavigableMap<Long, Double> range = series.subMap(
+                statistics.getHistoryMarketIndexFrom(), true, statistics.getHistoryMarketIndexTo(), true);
+        List<List<Double>> historyList = new ArrayList<>(range.size());
+        for (Map.Entry<Long, Double> entry : range.entrySet()) {
+            historyList.add(List.of(entry.getKey().doubleValue(), entry.getValue()));
+        }
+        statistics.setHistoryMarketIndexList(historyList);
+        return statistics;
+    }
+
+    /**
+     * 爬虫首次写入前以非阻塞方式加载完整序列
+     */
+    private Mono<Void> loadIfNecessary() {
+        if (loaded) {
+            return Mono.empty();
+        }
+        return reactiveMongoTemplate.find(new Query().with(Sort.by(Sort.Direction.ASC, "timestamp")), MarketIndexPoint.class)
+                .collectList()
+                .doOnNext(points -> {
+                    synchronized (this) {
+                        if (loaded) {
+                            return;
+                        }
+                        replaceSeries(points);
+                    }
+                })
+                .then();
+    }
+
+    /**
+     * 首次读取时从MongoDB加载完整序列
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            replaceSeries(marketIndexPointRepository.findAllByOrderByTimestampAsc());
+        }
+    }
+
+    /**
+     * 以加载的点构建新序列后整体替换（调用方持有 this 锁）；已在内存中的点都已写入MongoDB，
+     * 加载结果中缺少的（加载期间追加的）一并保留
+     */
+    private void replaceSeries(List<MarketIndexPoint> points) {
+        ConcurrentSkipListMap<Long, Double> loadedSeries = new ConcurrentSkipListMap<>();
+        points.forEach(point -> loadedSeries.put(point.getTimestamp(), point.getIndex()));
+        series.forEach(loadedSeries::putIfAbsent);
+        series = loadedSeries;
+        loaded = true;
+        log.info("已加载历史市场指数序列，共 {} 个点", loadedSeries.size());
+    }
+
+    /**
+     * 迁移旧文档：将内嵌的历史列表合并到序列中，记录时间范围并移除内嵌列表
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyHistory() {
+        try {
+            Document hasHistory = new Document(HISTORY_FIELD, new Document("$exists", true));
+            if (mongoTemplate.getCollection(STATISTICS_COLLECTION).countDocuments(hasHistory) == 0) {
+                return;
+            }
+            log.info("检测到内嵌历史市场指数列表的旧文档，开始迁移...");
+
+            List<Bson> mergePipeline = List.of(
+                    new Document("$match", hasHistory),
+                    new Document("$sort", new Document("createTime", 1)),
+                    new Document("$unwind", "$" + HISTORY_FIELD),
+                    new Document("$group", new Document("_id",
+                            new Document("$toLong", new Document("$arrayElemAt", List.of("$" + HISTORY_FIELD, 0))))
+                            .append("index", new Document("$last",
+                                    new Document("$arrayElemAt", List.of("$" + HISTORY_FIELD, 1))))),
+                    new Document("$merge", new Document("into", "market_index_history")
+                            .append("whenMatched", "keepExisting")
+                            .append("whenNotMatched", "insert")));
+            mongoTemplate.getCollection(STATISTICS_COLLECTION).aggregate(mergePipeline).allowDiskUse(true).toCollection();
+
+            List<Bson> unsetPipeline = List.of(
+                    new Document("$set", new Document("historyMarketIndexFrom",
+                            new Document("$toLong", new Document("$arrayElemAt", List.of(
+                                    new Document("$arrayElemAt", List.of("$" + HISTORY_FIELD, 0)), 0))))
+                            .append("historyMarketIndexTo",
+                                    new Document("$toLong", new Document("$arrayElemAt", List.of(
+                                            new Document("$arrayElemAt", List.of("$" + HISTORY_FIELD, -1)), 0))))),
+                    new Document("$unset", HISTORY_FIELD));
+            long modified = mongoTemplate.getCollection(STATISTICS_COLLECTION)
+                    .updateMany(hasHistory, unsetPipeline).getModifiedCount();
+
+            // 重新加载包含迁移点的序列后整体替换，期间爬虫追加和读取的都是完整的旧序列
+            List<MarketIndexPoint> points = marketIndexPointRepository.findAllByOrderByTimestampAsc();
+            synchronized (this) {
+                replaceSeries(points);
+            }
+            log.info("历史市场指数迁移完成，更新 {} 条Statistics记录", modified);
+        } catch (Exception e) {
+            log.error("迁移历史市场指数列表时发生错误: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.gzy.service;
+
+import com.gzy.util.Gzip;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 快照接口的预序列化响应缓存
+ * <p>
+ * 每个接口每个快照版本只序列化一次，同时保存原始和gzip压缩的字节，
+ * 之后的请求按 Accept-Encoding 直接写出缓存的字节，不再经过序列化和压缩。
+ * 新版本的响应体在锁外构建：第一个请求登记一个待完成的条目并负责构建，同一接口的并发请求等待该条目完成，
+ * 其他接口不受影响。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ResponseBodyCache {
+
+    private final ResponseSerializer responseSerializer;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong builds = new AtomicLong();
+    private final AtomicLong buildNanos = new AtomicLong();
+
+    /**
+     * 返回接口 key 在快照版本 version 下的响应体；version 为空时不缓存
+     */
+    public ResponseEntity<byte[]> render(String key, SnapshotVersion version, WebRequest webRequest,
+                                         Supplier<?> bodySupplier) {
+        requests.incrementAndGet();
+        Body body = version == null ? build(bodySupplier) : resolve(key, version.getEtag(), bodySupplier);
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip);
+        }
+        return builder.body(body.raw);
+    }
+
+    /**
+     * 缓存统计：平均每个请求的序列化耗时与每次序列化的耗时（即不使用缓存时每个请求的耗时）
+     */
+    public Map<String, Object> getStats() {
+        long requestCount = requests.get();
+        long buildCount = builds.get();
+        long nanos = buildNanos.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("serializer", responseSerializer.getName());
+        stats.put("requests", requestCount);
+        stats.put("serializations", buildCount);
+        stats.put("serializeMicrosPerSerialization", buildCount > 0 ? nanos / buildCount / 1000.0 : 0.0);
+        stats.put("serializeMicrosPerRequest", requestCount > 0 ? nanos / requestCount / 1000.0 : 0.0);
+        Map<String, Object> sizes = new LinkedHashMap<>();
+        entries.forEach((key, entry) -> {
+            Body body = entry.body.getNow(null);
+            if (body != null) {
+                sizes.put(key, Map.of("raw", body.raw.length, "gzip", body.gzip.length));
+            }
+        });
+        stats.put("entries", sizes);
+        return stats;
+    }
+
+    /**
+     * 取得 key 在 etag 版本下的响应体：已缓存时直接返回，正在构建时等待，否则登记新条目并在锁外构建
+     */
+    private Body resolve(String key, String etag, Supplier<?> bodySupplier) {
+        while (true) {
+            Entry cached = entries.get(key);
+            if (cached != null && cached.etag.equals(etag)) {
+                return await(cached);
+            }
+
+            Entry pending = new Entry(etag);
+            boolean installed = cached == null
+                    ? entries.putIfAbsent(key, pending) == null
+                    : entries.replace(key, cached, pending);
+            if (!installed) {
+                // 其他请求已登记了条目，重新检查版本
+                continue;
+            }
+            try {
+                Body body = build(bodySupplier);
+                pending.body.complete(body);
+                return body;
+            } catch (RuntimeException e) {
+                entries.remove(key, pending);
+                pending.body.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    private static Body await(Entry entry) {
+        try {
+            return entry.body.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private Body build(Supplier<?> bodySupplier) {
+        long start = System.nanoTime();
+        byte[] raw = responseSerializer.serialize(bodySupplier.get());
+        byte[] gzip = Gzip.compress(raw);
+        buildNanos.addAndGet(System.nanoTime() - start);
+        builds.incrementAndGet();
+        return new Body(raw, gzip);
+    }
+
+    /**
+     * Accept-Encoding 中包含 gzip 且 q 不为0
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String coding = parts[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean rejected = false;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        rejected = Double.parseDouble(param.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        rejected = true;
+                    }
+                }
+            }
+            if (!rejected) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 某个快照版本的缓存条目，响应体构建完成前为未完成状态
+     */
+    private static final class Entry {
+
+        private final String etag;
+        private final CompletableFuture<Body> body = new CompletableFuture<>();
+
+        private Entry(String etag) {
+            this.etag = etag;
+        }
+    }
+
+    private static final class Body {
+
+        private final byte[] raw;
+        private final byte[] gzip;
+
+        private Body(byte[] raw, byte[] gzip) {
+            this.raw = raw;
+            this.gzip = gzip;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.gzy.service;
+
+/**
+ * 预序列化响应使用的JSON序列化器，由 csgo.response-cache.serializer 选择实现
+ */
+public interface ResponseSerializer {
+
+    /**
+     * 序列化器名称
+     */
+    String getName();
+
+    /**
+     * 将响应对象序列化为UTF-8编码的JSON
+     */
+    byte[] serialize(Object body);
+}
@@ -0,0 +1,234 @@
+package com.gzy.service;
+
+import com.gzy.entity.ItemBlock;
+import com.gzy.entity.ItemBlockAnalysis;
+import com.gzy.entity.ItemBlockSketch;
+import com.gzy.entity.ItemPricePoint;
+import com.gzy.entity.RollupWatermark;
+import com.gzy.entity.Statistics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 分层数据保留服务
+ * <p>
+ * 原始数据（30秒采样的 item_blocks 及其分析结果、steam_statistics 以及物品价格序列）保留 raw-days 天，
+ * 分钟/小时汇总（含每小时的分位数草图）分别保留 minute-days / hour-days 天，天汇总永久保留（配置为0表示不过期）。
+ * item_blocks 按关键帧时间建立TTL索引，同一关键帧的增量和心跳与关键帧同时过期
+ * （ItemBlockCrawler 限制引用关键帧的跨度，过期最多推迟 MAX_HEARTBEAT_SPAN）；物品汇总按时间桶建立TTL索引；
+ * 市场统计汇总以时间桶作为 _id（无法建立TTL索引），由定时任务删除。
+ * <p>
+ * 参与汇总的原始数据（steam_statistics、item_price_series）的过期边界不超过汇总水位线：
+ * 定时任务按 min(now - raw-days, 水位线 - 余量) 重新设置过期时间，汇总落后时延长保留，尚未汇总时暂停过期，
+ * 保证原始数据在被汇总之前不会被TTL删除。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RetentionService {
+
+    private static final String TTL_INDEX_SUFFIX = "_ttl";
+
+    // 原始数据的过期边界至少落后汇总水位线该余量，覆盖两次检查之间TTL边界的推进和汇总回看心跳的跨度
+    private static final Duration ROLLUP_SAFETY_MARGIN = Duration.ofDays(1);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${csgo.retention.raw-days:30}")
+    private int rawDays;
+
+    @Value("${csgo.retention.minute-days:90}")
+    private int minuteDays;
+
+    @Value("${csgo.retention.hour-days:730}")
+    private int hourDays;
+
+    @Value("${csgo.retention.day-days:0}")
+    private int dayDays;
+
+    /**
+     * 应用就绪后按配置设置各集合的过期时间
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void applyRetention() {
+        validateTiers();
+
+        applyTtlIndex(mongoTemplate.getCollectionName(ItemBlock.class), "keyframeTime", retention(rawDays));
+        applyTtlIndex(mongoTemplate.getCollectionName(ItemBlockAnalysis.class), "createTime", retention(rawDays));
+        applyRawExpiry();
+
+        applyTtlIndex(RollupResolution.HOUR.collection(RollupService.ITEM_ROLLUP_PREFIX), "bucketStart",
+                retention(hourDays));
+        applyTtlIndex(mongoTemplate.getCollectionName(ItemBlockSketch.class), "bucketStart", retention(hourDays));
+        applyTtlIndex(RollupResolution.DAY.collection(RollupService.ITEM_ROLLUP_PREFIX), "bucketStart",
+                retention(dayDays));
+    }
+
+    /**
+     * 删除过期的市场统计汇总，并按汇总水位线重新设置原始数据的过期时间
+     */
+    @Scheduled(fixedDelay = 3600000, initialDelay = 120000)
+    public void pruneAndHoldRaw() {
+        pruneStatisticsRollups(RollupResolution.MINUTE, minuteDays);
+        pruneStatisticsRollups(RollupResolution.HOUR, hourDays);
+        pruneStatisticsRollups(RollupResolution.DAY, dayDays);
+
+        applyRawExpiry();
+    }
+
+    /**
+     * 设置参与汇总的原始数据的过期时间，统计数据按存储模式可能是时间序列集合或普通集合
+     */
+    private void applyRawExpiry() {
+        for (String collection : List.of(mongoTemplate.getCollectionName(Statistics.class),
+                mongoTemplate.getCollectionName(ItemPricePoint.class))) {
+            try {
+                Duration ttl = rawRetention(collection);
+                if (isTimeSeries(collection)) {
+                    applyTimeSeriesExpiry(collection, ttl);
+                } else {
+                    applyTtlIndex(collection, "createTime", ttl);
+                }
+            } catch (Exception e) {
+                log.error("设置集合 {} 的过期时间时发生错误: {}", collection, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 原始数据的保留时间：取 raw-days 与（水位线距今 + 余量）中较长者，使过期边界始终落后于汇总水位线；
+     * 尚未开始汇总时返回 null（暂停过期）
+     */
+    private Duration rawRetention(String source) {
+        Duration configured = retention(rawDays);
+        if (configured == null) {
+            return null;
+        }
+        RollupWatermark watermark = mongoTemplate.findById(source, RollupWatermark.class);
+        if (watermark == null || watermark.getWatermark() == null) {
+            log.warn("数据源 {} 尚未开始汇总，暂停原始数据过期", source);
+            return null;
+        }
+        Duration required = Duration.between(watermark.getWatermark(), LocalDateTime.now()).plus(ROLLUP_SAFETY_MARGIN);
+        if (required.compareTo(configured) <= 0) {
+            return configured;
+        }
+        // 按小时取整，避免水位线停滞时每次检查都修改过期时间
+        Duration extended = Duration.ofHours(required.toHours() + 1);
+        log.error("数据源 {} 的汇总水位线 {} 落后于原始数据过期边界，原始数据保留时间延长至 {} 小时，请检查汇总任务",
+                source, watermark.getWatermark(), extended.toHours());
+        return extended;
+    }
+
+    /**
+     * 保留天数转换为过期时间，0表示永久保留（返回 null）
+     */
+    private static Duration retention(int days) {
+        return days > 0 ? Duration.ofDays(days) : null;
+    }
+
+    /**
+     * 粗粒度汇总的保留时间不应短于细粒度数据，否则图表会出现缺口
+     */
+    private void validateTiers() {
+        if (rawDays > 0 && rawDays * 24L * 3600 < ROLLUP_SAFETY_MARGIN.toSeconds() * 2) {
+            log.warn("原始数据保留时间 {} 天过短，将按汇总水位线延长保留", rawDays);
+        }
+        List<int[]> tiers = List.of(new int[] {rawDays, minuteDays}, new int[] {minuteDays, hourDays},
+                new int[] {hourDays, dayDays});
+        for (int[] tier : tiers) {
+            if (tier[1] > 0 && (tier[0] == 0 || tier[1] < tier[0])) {
+                log.warn("数据保留配置不合理：粗粒度汇总保留 {} 天，短于细粒度数据的 {} 天（0表示永久）", tier[1], tier[0]);
+            }
+        }
+    }
+
+    /**
+     * 创建或更新TTL索引，ttl 为 null 时删除TTL索引
+     */
+    private void applyTtlIndex(String collection, String field, Duration ttl) {
+        String indexName = field + TTL_INDEX_SUFFIX;
+        try {
+            boolean exists = mongoTemplate.indexOps(collection).getIndexInfo().stream()
+                    .map(IndexInfo::getName)
+                    .anyMatch(indexName::equals);
+            if (ttl == null) {
+                if (exists) {
+                    mongoTemplate.indexOps(collection).dropIndex(indexName);
+                    log.info("集合 {} 已取消过期", collection);
+                }
+                return;
+            }
+
+            if (exists) {
+                mongoTemplate.getDb().runCommand(new Document("collMod", collection)
+                        .append("index", new Document("name", indexName)
+                                .append("expireAfterSeconds", ttl.toSeconds())));
+            } else {
+                mongoTemplate.indexOps(collection).createIndex(new Index()
+                        .on(field, Sort.Direction.ASC)
+                        .named(indexName)
+                        .expire(ttl));
+            }
+            log.info("集合 {} 按 {} 保留 {} 小时", collection, field, ttl.toHours());
+        } catch (Exception e) {
+            log.error("设置集合 {} 的TTL索引时发生错误: {}", collection, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 设置时间序列集合的过期时间，ttl 为 null 时取消过期
+     */
+    private void applyTimeSeriesExpiry(String collection, Duration ttl) {
+        try {
+            if (!isTimeSeries(collection)) {
+                log.warn("集合 {} 不是时间序列集合，跳过过期设置", collection);
+                return;
+            }
+            Object expireAfterSeconds = ttl != null ? ttl.toSeconds() : "off";
+            mongoTemplate.getDb().runCommand(new Document("collMod", collection)
+                    .append("expireAfterSeconds", expireAfterSeconds));
+            log.info("时间序列集合 {} 保留 {}", collection, ttl != null ? ttl.toHours() + " 小时" : "永久");
+        } catch (Exception e) {
+            log.error("设置时间序列集合 {} 的过期时间时发生错误: {}", collection, e.getMessage(), e);
+        }
+    }
+
+    private boolean isTimeSeries(String collection) {
+        Document info = mongoTemplate.getDb().listCollections().filter(new Document("name", collection)).first();
+        return info != null && "timeseries".equals(info.getString("type"));
+    }
+
+    private void pruneStatisticsRollups(RollupResolution resolution, int days) {
+        if (days <= 0) {
+            return;
+        }
+        String collection = resolution.collection(RollupService.STATISTICS_ROLLUP_PREFIX);
+        try {
+            long deleted = mongoTemplate.remove(
+                    Query.query(Criteria.where("_id").lt(LocalDateTime.now().minusDays(days))), collection)
+                    .getDeletedCount();
+            if (deleted > 0) {
+                log.info("已删除 {} 中 {} 条过期汇总", collection, deleted);
+            }
+        } catch (Exception e) {
+            log.error("删除 {} 中的过期汇总时发生错误: {}", collection, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.gzy.service;
+
+import java.time.Duration;
+
+/**
+ * 汇总数据分辨率
+ */
+public enum RollupResolution {
+
+    MINUTE("minute", "1m", Duration.ofMinutes(1)),
+    HOUR("hour", "1h", Duration.ofHours(1)),
+    DAY("day", "1d", Duration.ofDays(1));
+
+    // $dateTrunc 时间单位
+    private final String unit;
+
+    // 集合名称后缀
+    private final String suffix;
+
+    // 时间桶长度
+    private final Duration bucket;
+
+    RollupResolution(String unit, String suffix, Duration bucket) {
+        this.unit = unit;
+        this.suffix = suffix;
+        this.bucket = bucket;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public Duration getBucket() {
+        return bucket;
+    }
+
+    /**
+     * 指定前缀下该分辨率的集合名称
+     */
+    public String collection(String prefix) {
+        return prefix + "_" + suffix;
+    }
+}
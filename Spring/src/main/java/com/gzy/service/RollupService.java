@@ -0,0 +1,515 @@
+package com.gzy.service;
+
+import com.gzy.crawler.StatisticsCrawler;
+import com.gzy.entity.ItemBlock;
+import com.gzy.entity.ItemPriceRollup;
+import com.gzy.entity.RollupWatermark;
+import com.gzy.entity.StatisticsRollup;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * 分时汇总服务
+ * <p>
+ * 后台任务按水位线增量地将原始30秒采样汇总为分钟/小时/天三级OHLC数据（物品序列汇总为小时/天两级），
+ * 汇总全部在MongoDB中通过聚合管道和 $merge 完成。图表接口根据请求的时间窗口选择满足精度要求的最粗分辨率读取。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RollupService {
+
+    public static final String STATISTICS_ROLLUP_PREFIX = "steam_statistics_rollup";
+    public static final String ITEM_ROLLUP_PREFIX = "item_price_rollup";
+
+    private static final String STATISTICS_SOURCE = "steam_statistics";
+    private static final String ITEM_SOURCE = "item_price_series";
+
+    // 单次汇总处理的最大时间跨度，首次运行时分段处理历史数据
+    private static final Duration MAX_STEP = Duration.ofDays(1);
+
+    // 市场统计汇总字段：字段名, 累加器, 原始数据字段
+    private static final String[][] STATISTICS_FIELDS = {
+            {"indexOpen", "$first", "$broadMarketIndex"},
+            {"indexHigh", "$max", "$broadMarketIndex"},
+            {"indexLow", "$min", "$broadMarketIndex"},
+            {"indexClose", "$last", "$broadMarketIndex"},
+            {"indexSum", "$sum", "$broadMarketIndex"},
+            {"diffRatioClose", "$last", "$diffYesterdayRatio"},
+            {"turnoverOpen", "$first", "$todayStatistics.turnover"},
+            {"turnoverHigh", "$max", "$todayStatistics.turnover"},
+            {"turnoverLow", "$min", "$todayStatistics.turnover"},
+            {"turnoverClose", "$last", "$todayStatistics.turnover"},
+            {"turnoverSum", "$sum", "$todayStatistics.turnover"},
+            {"yesterdayTurnoverClose", "$last", "$yesterdayStatistics.turnover"},
+            {"yesterdayTurnoverSum", "$sum", "$yesterdayStatistics.turnover"},
+            {"addNumClose", "$last", "$todayStatistics.addNum"},
+            {"yesterdayAddNumClose", "$last", "$yesterdayStatistics.addNum"}
+    };
+
+    // 汇总用到的原始采样字段，心跳记录按其引用的采样补齐
+    private static final String[] STATISTICS_SAMPLE_FIELDS = {
+            "broadMarketIndex", "diffYesterdayRatio", "todayStatistics", "yesterdayStatistics"
+    };
+
+    // 物品序列汇总字段：字段名, 累加器, 原始数据字段
+    private static final String[][] ITEM_FIELDS = {
+            {"indexOpen", "$first", "$index"},
+            {"indexHigh", "$max", "$index"},
+            {"indexLow", "$min", "$index"},
+            {"indexClose", "$last", "$index"},
+            {"indexSum", "$sum", "$index"},
+            {"riseFallRateHigh", "$max", "$riseFallRate"},
+            {"riseFallRateLow", "$min", "$riseFallRate"},
+            {"riseFallRateClose", "$last", "$riseFallRate"}
+    };
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${csgo.rollup.enabled:true}")
+    private boolean enabled;
+
+    // 原始数据经延迟写入缓冲区落库，汇总截止时间需要留出的余量
+    @Value("${csgo.rollup.settle-ms:10000}")
+    private long settleMs;
+
+    /**
+     * 为物品汇总集合创建查询索引
+     */
+    @PostConstruct
+    public void initIndexes() {
+        try {
+            for (RollupResolution resolution : List.of(RollupResolution.HOUR, RollupResolution.DAY)) {
+                mongoTemplate.indexOps(resolution.collection(ITEM_ROLLUP_PREFIX)).createIndex(new Index()
+                        .on("itemName", Sort.Direction.ASC)
+                        .on("bucketStart", Sort.Direction.ASC));
+            }
+        } catch (Exception e) {
+            log.error("创建汇总集合索引时发生错误: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 增量汇总任务
+     */
+    @Scheduled(fixedDelayString = "${csgo.rollup.interval-ms:60000}", initialDelay = 30000)
+    public synchronized void compact() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            compactStatistics();
+        } catch (Exception e) {
+            log.error("汇总市场统计数据时发生错误: {}", e.getMessage(), e);
+        }
+        try {
+            compactItems();
+        } catch (Exception e) {
+            log.error("汇总物品价格序列时发生错误: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 原始采样 -> 分钟 -> 小时 -> 天，小时和天只重算本次涉及的时间桶
+     */
+    private void compactStatistics() {
+        LocalDateTime target = truncate(LocalDateTime.now().minus(settleDelay()), RollupResolution.MINUTE);
+        LocalDateTime watermark = loadWatermark(STATISTICS_SOURCE);
+        while (watermark != null && watermark.isBefore(target)) {
+            LocalDateTime to = min(watermark.plus(MAX_STEP), target);
+
+            merge(STATISTICS_SOURCE,
+                    statisticsPipeline(null, RollupResolution.MINUTE.getUnit(), watermark, to),
+                    RollupResolution.MINUTE.collection(STATISTICS_ROLLUP_PREFIX));
+            merge(RollupResolution.MINUTE.collection(STATISTICS_ROLLUP_PREFIX),
+                    statisticsPipeline(RollupResolution.MINUTE, RollupResolution.HOUR.getUnit(),
+                            truncate(watermark, RollupResolution.HOUR), to),
+                    RollupResolution.HOUR.collection(STATISTICS_ROLLUP_PREFIX));
+            merge(RollupResolution.HOUR.collection(STATISTICS_ROLLUP_PREFIX),
+                    statisticsPipeline(RollupResolution.HOUR, RollupResolution.DAY.getUnit(),
+                            truncate(watermark, RollupResolution.DAY), to),
+                    RollupResolution.DAY.collection(STATISTICS_ROLLUP_PREFIX));
+
+            saveWatermark(STATISTICS_SOURCE, to);
+            log.debug("市场统计数据已汇总至 {}", to);
+            watermark = to;
+        }
+    }
+
+    /**
+     * 物品原始序列 -> 小时 -> 天
+     */
+    private void compactItems() {
+        LocalDateTime target = truncate(LocalDateTime.now().minus(settleDelay()), RollupResolution.MINUTE);
+        LocalDateTime watermark = loadWatermark(ITEM_SOURCE);
+        while (watermark != null && watermark.isBefore(target)) {
+            LocalDateTime to = min(watermark.plus(MAX_STEP), target);
+
+            merge(ITEM_SOURCE,
+                    itemPipeline(null, RollupResolution.HOUR, truncate(watermark, RollupResolution.HOUR), to),
+                    RollupResolution.HOUR.collection(ITEM_ROLLUP_PREFIX));
+            merge(RollupResolution.HOUR.collection(ITEM_ROLLUP_PREFIX),
+                    itemPipeline(RollupResolution.HOUR, RollupResolution.DAY, truncate(watermark, RollupResolution.DAY), to),
+                    RollupResolution.DAY.collection(ITEM_ROLLUP_PREFIX));
+
+            saveWatermark(ITEM_SOURCE, to);
+            log.debug("物品价格序列已汇总至 {}", to);
+            watermark = to;
+        }
+    }
+
+    /**
+     * 删除市场统计汇总及其水位线（原始采样被删除时调用），与汇总任务互斥
+     */
+    public synchronized void deleteStatisticsRollups() {
+        deleteRollups(STATISTICS_ROLLUP_PREFIX, STATISTICS_SOURCE, RollupResolution.values());
+    }
+
+    /**
+     * 删除物品汇总及其水位线（物品价格序列被删除时调用），与汇总任务互斥
+     */
+    public synchronized void deleteItemRollups() {
+        deleteRollups(ITEM_ROLLUP_PREFIX, ITEM_SOURCE, RollupResolution.HOUR, RollupResolution.DAY);
+    }
+
+    private void deleteRollups(String prefix, String source, RollupResolution... resolutions) {
+        for (RollupResolution resolution : resolutions) {
+            mongoTemplate.remove(new Query(), resolution.collection(prefix));
+        }
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(source)), RollupWatermark.class);
+        log.info("已删除数据源 {} 的汇总数据", source);
+    }
+
+    /**
+     * 按时间单位（minute/hour/day/week）聚合市场统计数据
+     * <p>
+     * 时间桶按单位对齐，返回与 [start, end] 有交集的所有完整时间桶：起始时间和结束时间所在的桶都被完整包含，
+     * 无论数据来自汇总集合还是原始集合，同一请求的桶边界都相同。
+     * 已汇总的部分从不超过该单位的最粗汇总集合读取，水位线之后尚未汇总的尾部数据从原始集合补齐。
+     */
+    public List<StatisticsRollup> aggregateStatistics(LocalDateTime start, LocalDateTime end, String unit) {
+        RollupResolution source = switch (unit) {
+            case "minute" -> RollupResolution.MINUTE;
+            case "hour" -> RollupResolution.HOUR;
+            default -> RollupResolution.DAY;
+        };
+        LocalDateTime from = truncate(start, unit);
+        // 结束时间所在桶的下一个桶边界（不含），汇总集合中的桶都不会跨过它
+        LocalDateTime to = nextBucket(truncate(end, unit), unit);
+        LocalDateTime watermark = enabled ? findWatermark(STATISTICS_SOURCE) : null;
+
+        TreeMap<LocalDateTime, StatisticsRollup> buckets = new TreeMap<>();
+        LocalDateTime rawStart = from;
+        if (watermark != null && watermark.isAfter(from)) {
+            LocalDateTime rollupEnd = min(watermark, to);
+            aggregate(source.collection(STATISTICS_ROLLUP_PREFIX),
+                    statisticsPipeline(source, unit, from, rollupEnd), buckets);
+            rawStart = rollupEnd;
+        }
+        if (rawStart.isBefore(to)) {
+            aggregate(STATISTICS_SOURCE, statisticsPipeline(null, unit, rawStart, to), buckets);
+        }
+        return new ArrayList<>(buckets.values());
+    }
+
+    /**
+     * 读取指定物品在时间范围内的汇总数据
+     */
+    public List<ItemPriceRollup> findItemRollups(String itemName, LocalDateTime start, LocalDateTime end,
+            RollupResolution resolution) {
+        Query query = Query.query(Criteria.where("itemName").is(itemName)
+                        .and("bucketStart").gte(truncate(start, resolution)).lt(end))
+                .with(Sort.by(Sort.Direction.ASC, "bucketStart"));
+        return mongoTemplate.find(query, ItemPriceRollup.class, resolution.collection(ITEM_ROLLUP_PREFIX));
+    }
+
+    /**
+     * 选择满足精度要求的最粗分辨率：时间窗口内至少能产生 targetPoints 个时间桶，
+     * 候选分辨率都不满足时返回空，表示应读取原始数据
+     */
+    public Optional<RollupResolution> selectResolution(Duration window, int targetPoints,
+            List<RollupResolution> candidates) {
+        return candidates.stream()
+                .sorted((a, b) -> b.getBucket().compareTo(a.getBucket()))
+                .filter(resolution -> window.toMillis() / resolution.getBucket().toMillis() >= targetPoints)
+                .findFirst();
+    }
+
+    /**
+     * 市场统计聚合管道，source 为空时从原始采样聚合，否则从对应分辨率的汇总数据继续聚合
+     */
+    private List<Document> statisticsPipeline(RollupResolution source, String unit,
+            LocalDateTime from, LocalDateTime to) {
+        String timeField = source == null ? "createTime" : "_id";
+        List<Document> pipeline = new ArrayList<>();
+        if (source == null) {
+            pipeline.addAll(resolveHeartbeats(from, to));
+        } else {
+            pipeline.add(new Document("$match", timeRange(timeField, from, to)));
+        }
+
+        Document group = new Document("_id", dateTrunc("$" + timeField, unit))
+                .append("count", new Document("$sum", source == null ? 1 : "$count"))
+                .append("turnoverCount", new Document("$sum", source == null
+                        ? new Document("$cond", List.of(new Document("$isNumber", "$todayStatistics.turnover"), 1, 0))
+                        : "$turnoverCount"));
+        for (String[] field : STATISTICS_FIELDS) {
+            group.append(field[0], new Document(field[1], source == null ? field[2] : "$" + field[0]));
+        }
+
+        pipeline.add(new Document("$sort", new Document(timeField, 1)));
+        pipeline.add(new Document("$group", group));
+        return pipeline;
+    }
+
+    /**
+     * 筛选原始采样并将心跳记录还原为其引用的采样（与 StatisticsReadCallback 的读取结果一致）
+     * <p>
+     * 心跳引用的是此前最近一次完整采样，且间隔不超过 MAX_HEARTBEAT_SPAN：向前多读这段时间的采样，
+     * 按时间顺序用 $locf 把最近一次完整采样的字段带到后续心跳上，再去掉回看部分。
+     */
+    private List<Document> resolveHeartbeats(LocalDateTime from, LocalDateTime to) {
+        Document sample = new Document();
+        Document resolved = new Document();
+        for (String field : STATISTICS_SAMPLE_FIELDS) {
+            sample.append(field, "$" + field);
+            resolved.append(field, "$_sample." + field);
+        }
+
+        List<Document> pipeline = new ArrayList<>();
+        pipeline.add(new Document("$match",
+                timeRange("createTime", from.minus(StatisticsCrawler.MAX_HEARTBEAT_SPAN), to)));
+        // 完整采样带出自身字段，心跳为null
+        pipeline.add(new Document("$set", new Document("_sample", new Document("$cond", Arrays.asList(
+                new Document("$eq", List.of(new Document("$type", "$repeatOf"), "missing")), sample, null)))));
+        pipeline.add(new Document("$setWindowFields", new Document("sortBy", new Document("createTime", 1))
+                .append("output", new Document("_sample", new Document("$locf", "$_sample")))));
+        pipeline.add(new Document("$match", timeRange("createTime", from, to)));
+        // 引用的采样不在回看范围内（数据已过期）时无法还原，不参与汇总
+        pipeline.add(new Document("$match", new Document("_sample", new Document("$ne", null))));
+        pipeline.add(new Document("$set", resolved));
+        return pipeline;
+    }
+
+    /**
+     * 物品序列聚合管道，主键为 物品名称|时间桶；从原始序列聚合时心跳按其重复的快照补齐各物品的点
+     */
+    private List<Document> itemPipeline(RollupResolution source, RollupResolution target,
+            LocalDateTime from, LocalDateTime to) {
+        String timeField = source == null ? "createTime" : "bucketStart";
+
+        Document group = new Document("_id", new Document("itemName", "$itemName")
+                .append("bucketStart", dateTrunc("$" + timeField, target.getUnit())))
+                .append("count", new Document("$sum", source == null ? 1 : "$count"));
+        for (String[] field : ITEM_FIELDS) {
+            group.append(field[0], new Document(field[1], source == null ? field[2] : "$" + field[0]));
+        }
+
+        List<Document> pipeline = new ArrayList<>();
+        pipeline.add(new Document("$match", timeRange(timeField, from, to)));
+        if (source == null) {
+            pipeline.add(itemHeartbeats(from, to));
+        }
+        pipeline.add(new Document("$sort", new Document(timeField, 1)));
+        pipeline.add(new Document("$group", group));
+        pipeline.add(new Document("$set", new Document("itemName", "$_id.itemName")
+                .append("bucketStart", "$_id.bucketStart")));
+        pipeline.add(new Document("$set", new Document("_id", new Document("$concat", List.of(
+                "$itemName", "|",
+                new Document("$dateToString", new Document("date", "$bucketStart")
+                        .append("format", "%Y-%m-%dT%H:%M:%S")))))));
+        return pipeline;
+    }
+
+    /**
+     * 心跳不写入物品序列：从 item_blocks 取出时间范围内的心跳，按 repeatOfTime 查出所重复快照的各物品点，
+     * 以心跳时间并入序列，使计数和均值与统计汇总一样包含数据未变化的时段
+     * <p>
+     * 所重复的快照已过期时查不到点，该心跳不参与汇总。
+     */
+    private Document itemHeartbeats(LocalDateTime from, LocalDateTime to) {
+        Document range = timeRange("createTime", from, to);
+        range.append("repeatOfTime", new Document("$exists", true));
+        return new Document("$unionWith", new Document("coll", mongoTemplate.getCollectionName(ItemBlock.class))
+                .append("pipeline", List.of(
+                        new Document("$match", range),
+                        new Document("$project", new Document("createTime", 1).append("repeatOfTime", 1)),
+                        new Document("$lookup", new Document("from", ITEM_SOURCE)
+                                .append("localField", "repeatOfTime")
+                                .append("foreignField", "createTime")
+                                .append("as", "_points")),
+                        new Document("$unwind", "$_points"),
+                        new Document("$project", new Document("_id", 0)
+                                .append("itemName", "$_points.itemName")
+                                .append("createTime", 1)
+                                .append("index", "$_points.index")
+                                .append("riseFallRate", "$_points.riseFallRate")))));
+    }
+
+    private void merge(String sourceCollection, List<Document> pipeline, String targetCollection) {
+        pipeline.add(new Document("$merge", new Document("into", targetCollection)
+                .append("on", "_id")
+                .append("whenMatched", "replace")
+                .append("whenNotMatched", "insert")));
+        mongoTemplate.getCollection(sourceCollection).aggregate(pipeline).allowDiskUse(true).toCollection();
+    }
+
+    private void aggregate(String collection, List<Document> pipeline, TreeMap<LocalDateTime, StatisticsRollup> buckets) {
+        for (Document row : mongoTemplate.getCollection(collection).aggregate(pipeline).allowDiskUse(true)) {
+            StatisticsRollup rollup = mongoTemplate.getConverter().read(StatisticsRollup.class, row);
+            buckets.merge(rollup.getBucketStart(), rollup, RollupService::combine);
+        }
+    }
+
+    /**
+     * 合并同一时间桶的两段汇总数据（earlier 在前）
+     */
+    private static StatisticsRollup combine(StatisticsRollup earlier, StatisticsRollup later) {
+        return StatisticsRollup.builder()
+                .bucketStart(earlier.getBucketStart())
+                .count(sum(earlier.getCount(), later.getCount()))
+                .indexOpen(earlier.getIndexOpen() != null ? earlier.getIndexOpen() : later.getIndexOpen())
+                .indexHigh(max(earlier.getIndexHigh(), later.getIndexHigh()))
+                .indexLow(min(earlier.getIndexLow(), later.getIndexLow()))
+                .indexClose(later.getIndexClose() != null ? later.getIndexClose() : earlier.getIndexClose())
+                .indexSum(sum(earlier.getIndexSum(), later.getIndexSum()))
+                .diffRatioClose(later.getDiffRatioClose() != null ? later.getDiffRatioClose() : earlier.getDiffRatioClose())
+                .turnoverOpen(earlier.getTurnoverOpen() != null ? earlier.getTurnoverOpen() : later.getTurnoverOpen())
+                .turnoverHigh(max(earlier.getTurnoverHigh(), later.getTurnoverHigh()))
+                .turnoverLow(min(earlier.getTurnoverLow(), later.getTurnoverLow()))
+                .turnoverClose(later.getTurnoverClose() != null ? later.getTurnoverClose() : earlier.getTurnoverClose())
+                .turnoverSum(sum(earlier.getTurnoverSum(), later.getTurnoverSum()))
+                .turnoverCount(sum(earlier.getTurnoverCount(), later.getTurnoverCount()))
+                .yesterdayTurnoverClose(later.getYesterdayTurnoverClose() != null
+                        ? later.getYesterdayTurnoverClose() : earlier.getYesterdayTurnoverClose())
+                .yesterdayTurnoverSum(sum(earlier.getYesterdayTurnoverSum(), later.getYesterdayTurnoverSum()))
+                .addNumClose(later.getAddNumClose() != null ? later.getAddNumClose() : earlier.getAddNumClose())
+                .yesterdayAddNumClose(later.getYesterdayAddNumClose() != null
+                        ? later.getYesterdayAddNumClose() : earlier.getYesterdayAddNumClose())
+                .build();
+    }
+
+    /**
+     * 读取水位线，首次运行时以原始数据中最早的采样时间为起点
+     */
+    private LocalDateTime loadWatermark(String source) {
+        LocalDateTime watermark = findWatermark(source);
+        if (watermark != null) {
+            return watermark;
+        }
+
+        Query earliest = new Query().with(Sort.by(Sort.Direction.ASC, "createTime")).limit(1);
+        earliest.fields().include("createTime");
+        Document first = mongoTemplate.findOne(earliest, Document.class, source);
+        if (first == null || first.getDate("createTime") == null) {
+            return null;
+        }
+        return truncate(toLocalDateTime(first.getDate("createTime")), RollupResolution.MINUTE);
+    }
+
+    private LocalDateTime findWatermark(String source) {
+        RollupWatermark watermark = mongoTemplate.findById(source, RollupWatermark.class);
+        return watermark != null ? watermark.getWatermark() : null;
+    }
+
+    private void saveWatermark(String source, LocalDateTime watermark) {
+        mongoTemplate.save(RollupWatermark.builder().source(source).watermark(watermark).build());
+    }
+
+    private Document dateTrunc(String dateExpression, String unit) {
+        Document dateTrunc = new Document("date", dateExpression)
+                .append("unit", unit)
+                .append("timezone", ZoneId.systemDefault().getId());
+        if ("week".equals(unit)) {
+            dateTrunc.append("startOfWeek", "monday");
+        }
+        return new Document("$dateTrunc", dateTrunc);
+    }
+
+    private Document timeRange(String field, LocalDateTime from, LocalDateTime to) {
+        return new Document(field, new Document("$gte", toDate(from)).append("$lt", toDate(to)));
+    }
+
+    private Duration settleDelay() {
+        return Duration.ofMillis(settleMs);
+    }
+
+    private static LocalDateTime truncate(LocalDateTime time, RollupResolution resolution) {
+        return switch (resolution) {
+            case MINUTE -> time.withSecond(0).withNano(0);
+            case HOUR -> time.withMinute(0).withSecond(0).withNano(0);
+            case DAY -> time.toLocalDate().atStartOfDay();
+        };
+    }
+
+    /**
+     * 按 $dateTrunc 的时间单位截断（week 从周一开始，与 dateTrunc 一致）
+     */
+    private static LocalDateTime truncate(LocalDateTime time, String unit) {
+        return switch (unit) {
+            case "minute" -> truncate(time, RollupResolution.MINUTE);
+            case "hour" -> truncate(time, RollupResolution.HOUR);
+            case "week" -> time.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+            default -> truncate(time, RollupResolution.DAY);
+        };
+    }
+
+    private static LocalDateTime nextBucket(LocalDateTime bucketStart, String unit) {
+        return switch (unit) {
+            case "minute" -> bucketStart.plusMinutes(1);
+            case "hour" -> bucketStart.plusHours(1);
+            case "week" -> bucketStart.plusWeeks(1);
+            default -> bucketStart.plusDays(1);
+        };
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static Date toDate(LocalDateTime time) {
+        return Date.from(time.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+
+    private static Double max(Double a, Double b) {
+        return a == null ? b : b == null ? a : Math.max(a, b);
+    }
+
+    private static Double min(Double a, Double b) {
+        return a == null ? b : b == null ? a : Math.min(a, b);
+    }
+
+    private static Double sum(Double a, Double b) {
+        return a == null ? b : b == null ? a : a + b;
+    }
+
+    private static Long sum(Long a, Long b) {
+        return a == null ? b : b == null ? a : a + b;
+    }
+}
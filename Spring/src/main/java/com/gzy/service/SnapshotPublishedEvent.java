@@ -0,0 +1,25 @@
+package com.gzy.service;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 最新快照变更事件
+ * <p>
+ * 爬虫保存新快照或快照被清空时由 LatestSnapshotStore 发布，依赖最新数据的缓存据此失效。
+ */
+@Getter
+public class SnapshotPublishedEvent extends ApplicationEvent {
+
+    public enum Kind {
+        ITEM_BLOCK,
+        STATISTICS
+    }
+
+    private final Kind kind;
+
+    public SnapshotPublishedEvent(Object source, Kind kind) {
+        super(source);
+        this.kind = kind;
+    }
+}
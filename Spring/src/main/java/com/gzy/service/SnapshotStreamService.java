@@ -0,0 +1,152 @@
+package com.gzy.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gzy.entity.ItemBlock;
+import com.gzy.entity.ItemBlockCategory;
+import com.gzy.entity.ItemBlockItem;
+import com.gzy.entity.Statistics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * 快照推送服务
+ * <p>
+ * 爬虫保存新数据后（SnapshotPublishedEvent）生成精简事件：快照ID、市场指数或热门涨跌榜。
+ * 每个事件只序列化一次，通过共享的多播 Sink 推送给所有订阅者；
+ * 每个订阅者独立缓冲且只保留最新一个待发送事件，慢客户端不会阻塞其他订阅者。
+ * 心跳记录（上游数据未变化）不推送。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SnapshotStreamService {
+
+    public static final String ITEM_BLOCK_EVENT = "item-block";
+    public static final String STATISTICS_EVENT = "statistics";
+
+    // 推送的涨跌榜条数
+    private static final int TOP_MOVERS_LIMIT = 5;
+
+    private final LatestSnapshotStore latestSnapshotStore;
+    private final ObjectMapper objectMapper;
+
+    private final Sinks.Many<ServerSentEvent<String>> sink = Sinks.many().multicast().directBestEffort();
+
+    // 每类最新的事件，新订阅者连接时先收到
+    private final AtomicReference<ServerSentEvent<String>> latestItemBlockEvent = new AtomicReference<>();
+    private final AtomicReference<ServerSentEvent<String>> latestStatisticsEvent = new AtomicReference<>();
+
+    @Value("${csgo.stream.keep-alive-ms:15000}")
+    private long keepAliveMs;
+
+    /**
+     * 订阅快照事件流
+     */
+    public Flux<ServerSentEvent<String>> subscribe() {
+        List<ServerSentEvent<String>> initial = Stream.of(latestItemBlockEvent.get(), latestStatisticsEvent.get())
+                .filter(event -> event != null)
+                .toList();
+        Flux<ServerSentEvent<String>> keepAlive = Flux.interval(Duration.ofMillis(keepAliveMs))
+                .map(tick -> ServerSentEvent.<String>builder().comment("keep-alive").build());
+
+        return Flux.merge(sink.asFlux(), keepAlive)
+                .startWith(initial)
+                // 慢客户端只保留最新事件，写出在独立线程进行，不阻塞发布线程
+                .onBackpressureLatest()
+                .publishOn(Schedulers.boundedElastic(), 1);
+    }
+
+    @EventListener
+    public void onSnapshotPublished(SnapshotPublishedEvent event) {
+        try {
+            if (event.getKind() == SnapshotPublishedEvent.Kind.ITEM_BLOCK) {
+                ItemBlock latest = latestSnapshotStore.getLatestItemBlock();
+                if (latest != null && latest.getRepeatOf() == null) {
+                    emit(latestItemBlockEvent, ITEM_BLOCK_EVENT, latest.getId(), itemBlockPayload(latest));
+                }
+            } else {
+                Statistics latest = latestSnapshotStore.getLatestStatistics().orElse(null);
+                if (latest != null && latest.getRepeatOf() == null) {
+                    emit(latestStatisticsEvent, STATISTICS_EVENT, latest.getId(), statisticsPayload(latest));
+                }
+            }
+        } catch (Exception e) {
+            log.error("推送快照事件时发生错误: {}", e.getMessage(), e);
+        }
+    }
+
+    private void emit(AtomicReference<ServerSentEvent<String>> latest, String type, String id,
+                      Map<String, Object> payload) throws JsonProcessingException {
+        ServerSentEvent<String> event = ServerSentEvent.<String>builder()
+                .id(id)
+                .event(type)
+                .data(objectMapper.writeValueAsString(payload))
+                .build();
+        latest.set(event);
+        Sinks.EmitResult result;
+        // 两个爬虫通道在不同线程发布，发射需要串行，否则并发发射会以 FAIL_NON_SERIALIZED 失败
+        synchronized (sink) {
+            result = sink.tryEmitNext(event);
+        }
+        // 没有订阅者时直接丢弃（个别订阅者暂无需求时只对其丢弃，结果仍为OK）
+        if (result != Sinks.EmitResult.OK && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            log.warn("推送 {} 事件失败，ID: {}, 结果: {}", type, id, result);
+        }
+    }
+
+    private Map<String, Object> itemBlockPayload(ItemBlock itemBlock) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("snapshotId", itemBlock.getId());
+        payload.put("createTime", itemBlock.getCreateTime());
+        ItemBlockCategory hot = itemBlock.getData() != null ? itemBlock.getData().getHot() : null;
+        if (hot != null) {
+            payload.put("topRise", topMovers(hot.getTopList()));
+            payload.put("topFall", topMovers(hot.getBottomList()));
+        }
+        return payload;
+    }
+
+    private Map<String, Object> statisticsPayload(Statistics statistics) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("snapshotId", statistics.getId());
+        payload.put("createTime", statistics.getCreateTime());
+        payload.put("broadMarketIndex", statistics.getBroadMarketIndex());
+        payload.put("diffYesterday", statistics.getDiffYesterday());
+        payload.put("diffYesterdayRatio", statistics.getDiffYesterdayRatio());
+        payload.put("riseFallType", statistics.getRiseFallType());
+        payload.put("riseFallDays", statistics.getRiseFallDays());
+        return payload;
+    }
+
+    private List<Map<String, Object>> topMovers(List<ItemBlockItem> items) {
+        if (items == null || items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Map<String, Object>> movers = new ArrayList<>();
+        for (ItemBlockItem item : items.subList(0, Math.min(TOP_MOVERS_LIMIT, items.size()))) {
+            Map<String, Object> mover = new LinkedHashMap<>();
+            mover.put("name", item.getName());
+            mover.put("index", item.getIndex());
+            mover.put("riseFallRate", item.getRiseFallRate());
+            movers.add(mover);
+        }
+        return movers;
+    }
+}
@@ -0,0 +1,142 @@
+package com.gzy.service;
+
+import com.gzy.entity.ItemBlock;
+import com.gzy.entity.Statistics;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 快照版本：由快照内容标识生成强ETag，由创建时间生成Last-Modified，
+ * 用于轮询接口的条件请求，快照未变化时直接返回304。
+ * 心跳与其重复的快照内容相同，ETag不变；响应体缓存按ETag保存，同一ETag返回的响应体相同。
+ * 同一URL按 format 参数和 Accept 请求头返回不同表示（JSON/CBOR、点/并列数组）的接口，ETag 中包含表示，
+ * 不同表示的响应体不会共用同一个强ETag。
+ */
+@Getter
+public class SnapshotVersion {
+
+    private final String etag;
+    private final long lastModified;
+
+    private SnapshotVersion(String etag, long lastModified) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * ItemBlock快照的版本，心跳与其重复的快照共用ETag
+     */
+    public static SnapshotVersion of(ItemBlock itemBlock) {
+        return itemBlock == null ? null
+                : of(contentIdentity(itemBlock.getContentHash(), itemBlock.getRepeatOf(), itemBlock.getId()),
+                        itemBlock.getCreateTime());
+    }
+
+    /**
+     * Statistics采样的版本，心跳与其重复的采样共用ETag
+     */
+    public static SnapshotVersion of(Statistics statistics) {
+        return statistics == null ? null
+                : of(contentIdentity(statistics.getContentHash(), statistics.getRepeatOf(), statistics.getId()),
+                        statistics.getCreateTime());
+    }
+
+    /**
+     * 内容标识：优先内容哈希（超过心跳时长后重新保存的相同内容也不变），旧数据没有哈希时取心跳所重复的快照ID
+     */
+    private static String contentIdentity(String contentHash, String repeatOf, String id) {
+        if (contentHash != null) {
+            return contentHash;
+        }
+        return repeatOf != null ? repeatOf : id;
+    }
+
+    private static SnapshotVersion of(String id, LocalDateTime createTime) {
+        if (id == null) {
+            return null;
+        }
+        long lastModified = createTime != null
+                ? createTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : -1;
+        return new SnapshotVersion("\"" + id + "\"", lastModified);
+    }
+
+    /**
+     * 合并多个快照的版本，ETag包含全部快照的内容标识，Last-Modified取最新的时间；任一版本缺失时返回null
+     */
+    public static SnapshotVersion combine(SnapshotVersion first, SnapshotVersion second) {
+        if (first == null || second == null) {
+            return null;
+        }
+        String etag = "\"" + unquote(first.etag) + "-" + unquote(second.etag) + "\"";
+        return new SnapshotVersion(etag, Math.max(first.lastModified, second.lastModified));
+    }
+
+    /**
+     * 快照未变化时（If-None-Match / If-Modified-Since 命中）返回true，响应状态已置为304
+     */
+    public static boolean notModified(WebRequest webRequest, SnapshotVersion version) {
+        return version != null && webRequest.checkNotModified(version.etag, version.lastModified);
+    }
+
+    /**
+     * 按表示区分的条件请求：ETag 包含 format 和按 Accept 协商出的编码，响应带 Vary: Accept
+     */
+    public static boolean notModified(WebRequest webRequest, SnapshotVersion version, String format) {
+        if (webRequest instanceof NativeWebRequest nativeRequest) {
+            HttpServletResponse response = nativeRequest.getNativeResponse(HttpServletResponse.class);
+            if (response != null) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+        }
+        if (version == null) {
+            return false;
+        }
+        String variant = format + "." + negotiatedEncoding(webRequest.getHeader(HttpHeaders.ACCEPT));
+        SnapshotVersion representation = new SnapshotVersion(
+                "\"" + unquote(version.etag) + "-" + variant + "\"", version.lastModified);
+        return notModified(webRequest, representation);
+    }
+
+    /**
+     * 与消息转换器的选择一致：按质量值排序后第一个与JSON或CBOR兼容的类型，通配时为JSON
+     */
+    static String negotiatedEncoding(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return "json";
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return "json";
+        }
+        mediaTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() <= 0) {
+                continue;
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return "json";
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                return "cbor";
+            }
+        }
+        return "json";
+    }
+
+    private static String unquote(String etag) {
+        return etag.substring(1, etag.length() - 1);
+    }
+}
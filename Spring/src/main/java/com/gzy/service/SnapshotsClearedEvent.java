@@ -0,0 +1,21 @@
+package com.gzy.service;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 快照数据被清空事件
+ * <p>
+ * 删除全部数据后由 LatestSnapshotStore 发布，爬虫据此丢弃指向已删除快照的去重基准和关键帧，
+ * 下一个快照重新写为完整关键帧。
+ */
+@Getter
+public class SnapshotsClearedEvent extends ApplicationEvent {
+
+    private final SnapshotPublishedEvent.Kind kind;
+
+    public SnapshotsClearedEvent(Object source, SnapshotPublishedEvent.Kind kind) {
+        super(source);
+        this.kind = kind;
+    }
+}
@@ -1,27 +1,41 @@
 package com.gzy.service;
 
+import com.gzy.config.AnalysisCacheConfig;
 import com.gzy.entity.Statistics;
+import com.gzy.entity.StatisticsRollup;
 import com.gzy.repository.StatisticsRepository;
+import com.gzy.util.ColumnarSeries;
+import com.gzy.util.Lttb;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.TreeMap;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@CacheConfig(cacheNames = AnalysisCacheConfig.STATISTICS_ANALYSIS, keyGenerator = AnalysisCacheConfig.STATISTICS_KEY_GENERATOR)
 public class StatisticsService {
 
     private final StatisticsRepository statisticsRepository;
+    private final LatestSnapshotStore latestSnapshotStore;
+    private final RollupService rollupService;
 
     /**
      * 保存统计数据
@@ -37,8 +51,7 @@ public class StatisticsService {
      * 获取最新的统计数据
      */
     public Optional<Statistics> getLatest() {
-        Statistics latest = statisticsRepository.findFirstByOrderByCreateTimeDesc();
-        return Optional.ofNullable(latest);
+        return latestSnapshotStore.getLatestStatistics();
     }
 
     /**
@@ -79,10 +92,13 @@ public class StatisticsService {
     }
 
     /**
-     * 删除所有记录
+     * 删除所有记录及由其汇总的分钟/小时/天数据
      */
     public void deleteAll() {
         statisticsRepository.deleteAll();
+        rollupService.deleteStatisticsRollups();
+        // 汇总删除后再清空最新采样并重置爬虫的去重基准
+        latestSnapshotStore.clearStatistics();
     }
 
     /**
@@ -94,159 +110,338 @@ public class StatisticsService {
 
     /**
      * 获取专业统计数据（趋势数据包）
+     * <p>
+     * 查询最近days天的真实时间窗口，数据源按 maxPoints 选择满足精度的最粗汇总分辨率（窗口很短时读取原始采样），
+     * 每条序列再用 LTTB 降采样到不超过 maxPoints 个点。
      *
-     * @param days 查询天数
+     * @param days      查询天数
+     * @param maxPoints 每条序列的最大点数
      * @return 专业统计数据
      */
-    public Map<String, Object> getProStatistics(int days) {
-        // 限制查询天数，防止过大查询
-        int limitedDays = Math.min(days, 90);
-        PageRequest pageRequest = PageRequest.of(0, limitedDays,
-                Sort.by(Sort.Direction.ASC, "createTime"));
-        Page<Statistics> statisticsPage = statisticsRepository.findAll(pageRequest);
-        List<Statistics> statisticsList = statisticsPage.getContent();
-
-        Map<String, Object> proStatsData = new HashMap<>();
+    @Cacheable
+    public Map<String, Object> getProStatistics(int days, int maxPoints) {
+        ProSeries series = loadProSeries(days, maxPoints);
+        List<StatisticsRollup> rows = series.rows;
 
         // 市场指数趋势数据
         List<Map<String, Object>> marketIndexTrend = new ArrayList<>();
-        // 成交额数据
-        List<Map<String, Object>> turnoverData = new ArrayList<>();
-        // 新增数量数据
-        List<Map<String, Object>> addNumData = new ArrayList<>();
-        // 按天聚合的成交额数据
-        Map<String, Map<String, Double>> dailyTurnoverData = new HashMap<>();
-
-        for (Statistics stats : statisticsList) {
-            // 日期格式化为 YYYY-MM-DD HH:MM:SS
-            String formattedDate = stats.getCreateTime().toString();
-            // 日期（仅日期部分，不含时间）- 用于按天聚合
-            String dailyDate = stats.getCreateTime().toLocalDate().toString();
-
-            // 市场指数趋势
+        for (int i : Lttb.select(series.times, series.indexes, maxPoints)) {
+            StatisticsRollup row = rows.get(i);
             Map<String, Object> indexPoint = new HashMap<>();
-            indexPoint.put("date", formattedDate);
-            indexPoint.put("index", stats.getBroadMarketIndex());
-            indexPoint.put("diffRatio", stats.getDiffYesterdayRatio());
+            indexPoint.put("date", row.getBucketStart().toString());
+            indexPoint.put("index", row.getIndexClose());
+            indexPoint.put("diffRatio", row.getDiffRatioClose());
             marketIndexTrend.add(indexPoint);
+        }
 
-            // 成交额数据
+        // 成交额数据
+        List<Map<String, Object>> turnoverData = new ArrayList<>();
+        for (int i : Lttb.select(series.times, series.turnovers, maxPoints)) {
+            StatisticsRollup row = rows.get(i);
             Map<String, Object> turnoverPoint = new HashMap<>();
-            turnoverPoint.put("date", formattedDate);
-            turnoverPoint.put("today",
-                    stats.getTodayStatistics() != null ? stats.getTodayStatistics().getTurnover() : 0.0);
+            turnoverPoint.put("date", row.getBucketStart().toString());
+            turnoverPoint.put("today", row.getTurnoverClose() != null ? row.getTurnoverClose() : 0.0);
             turnoverPoint.put("yesterday",
-                    stats.getYesterdayStatistics() != null ? stats.getYesterdayStatistics().getTurnover() : 0.0);
+                    row.getYesterdayTurnoverClose() != null ? row.getYesterdayTurnoverClose() : 0.0);
             turnoverData.add(turnoverPoint);
+        }
 
-            // 新增数量数据
+        // 新增数量数据
+        List<Map<String, Object>> addNumData = new ArrayList<>();
+        for (int i : Lttb.select(series.times, series.addNums, maxPoints)) {
+            StatisticsRollup row = rows.get(i);
             Map<String, Object> addNumPoint = new HashMap<>();
-            addNumPoint.put("date", formattedDate);
-            addNumPoint.put("today",
-                    stats.getTodayStatistics() != null ? stats.getTodayStatistics().getAddNum() : "0");
-            addNumPoint.put("yesterday",
-                    stats.getYesterdayStatistics() != null ? stats.getYesterdayStatistics().getAddNum() : "0");
+            addNumPoint.put("date", row.getBucketStart().toString());
+            addNumPoint.put("today", row.getAddNumClose() != null ? row.getAddNumClose() : "0");
+            addNumPoint.put("yesterday", row.getYesterdayAddNumClose() != null ? row.getYesterdayAddNumClose() : "0");
             addNumData.add(addNumPoint);
-
-            // 按天聚合成交额数据
-            if (!dailyTurnoverData.containsKey(dailyDate)) {
-                dailyTurnoverData.put(dailyDate, new HashMap<>());
-                dailyTurnoverData.get(dailyDate).put("today", 0.0);
-                dailyTurnoverData.get(dailyDate).put("yesterday", 0.0);
-                dailyTurnoverData.get(dailyDate).put("count", 0.0);
-            }
-
-            // 累加该天的成交额
-            Map<String, Double> dailyData = dailyTurnoverData.get(dailyDate);
-            double todayTurnover = stats.getTodayStatistics() != null ? stats.getTodayStatistics().getTurnover() : 0.0;
-            double yesterdayTurnover = stats.getYesterdayStatistics() != null
-                    ? stats.getYesterdayStatistics().getTurnover()
-                    : 0.0;
-
-            dailyData.put("today", dailyData.get("today") + todayTurnover);
-            dailyData.put("yesterday", dailyData.get("yesterday") + yesterdayTurnover);
-            dailyData.put("count", dailyData.get("count") + 1);
         }
 
-        // 将每日聚合数据转换为列表
+        // 按天聚合的成交额数据（当天所有采样的平均值）
         List<Map<String, Object>> dailyTurnoverList = new ArrayList<>();
-        for (Map.Entry<String, Map<String, Double>> entry : dailyTurnoverData.entrySet()) {
+        for (int i : Lttb.select(series.dailyTimes, series.dailyTurnovers, maxPoints)) {
             Map<String, Object> dailyPoint = new HashMap<>();
-            dailyPoint.put("date", entry.getKey());
-
-            // 如果有多个记录，计算平均值
-            double count = entry.getValue().get("count");
-            if (count > 0) {
-                dailyPoint.put("today", entry.getValue().get("today") / count);
-                dailyPoint.put("yesterday", entry.getValue().get("yesterday") / count);
-            } else {
-                dailyPoint.put("today", 0.0);
-                dailyPoint.put("yesterday", 0.0);
-            }
-
+            dailyPoint.put("date", series.dailyRows.get(i).getBucketStart().toLocalDate().toString());
+            dailyPoint.put("today", series.dailyTurnovers[i]);
+            dailyPoint.put("yesterday", series.dailyYesterdayTurnovers[i]);
             dailyTurnoverList.add(dailyPoint);
         }
 
-        // 按日期排序
-        dailyTurnoverList.sort((a, b) -> ((String) a.get("date")).compareTo((String) b.get("date")));
-
+        Map<String, Object> proStatsData = new HashMap<>();
         proStatsData.put("marketIndexTrend", marketIndexTrend);
         proStatsData.put("turnoverData", turnoverData);
         proStatsData.put("dailyTurnoverData", dailyTurnoverList);
         proStatsData.put("addNumData", addNumData);
+        proStatsData.put("resolution", series.resolution);
+        proStatsData.put("overview", buildOverview(series));
+
+        return proStatsData;
+    }
+
+    /**
+     * 获取专业统计数据（列式）
+     * <p>
+     * 与 getProStatistics 的数据相同，每条序列为 ts（epoch毫秒）与数值列的并列数组，不为每个点创建Map；
+     * 新增数量解析为数值，缺失值为null。
+     *
+     * @param days      查询天数
+     * @param maxPoints 每条序列的最大点数
+     * @return 专业统计数据
+     */
+    @Cacheable
+    public Map<String, Object> getProStatisticsColumnar(int days, int maxPoints) {
+        ProSeries series = loadProSeries(days, maxPoints);
+        List<StatisticsRollup> rows = series.rows;
+
+        Map<String, Object> proStatsData = new HashMap<>();
+        proStatsData.put("marketIndexTrend",
+                ColumnarSeries.select(series.times, Lttb.select(series.times, series.indexes, maxPoints))
+                        .column("index", i -> series.indexes[i])
+                        .column("diffRatio", i -> valueOrNaN(rows.get(i).getDiffRatioClose())));
+        proStatsData.put("turnoverData",
+                ColumnarSeries.select(series.times, Lttb.select(series.times, series.turnovers, maxPoints))
+                        .column("today", i -> sumOrZero(rows.get(i).getTurnoverClose()))
+                        .column("yesterday", i -> sumOrZero(rows.get(i).getYesterdayTurnoverClose())));
+        proStatsData.put("addNumData",
+                ColumnarSeries.select(series.times, Lttb.select(series.times, series.addNums, maxPoints))
+                        .column("today", i -> series.addNums[i])
+                        .column("yesterday", i -> parseNumber(rows.get(i).getYesterdayAddNumClose())));
+        proStatsData.put("dailyTurnoverData",
+                ColumnarSeries.select(series.dailyTimes,
+                                Lttb.select(series.dailyTimes, series.dailyTurnovers, maxPoints))
+                        .column("today", i -> series.dailyTurnovers[i])
+                        .column("yesterday", i -> series.dailyYesterdayTurnovers[i]));
+        proStatsData.put("resolution", series.resolution);
+        proStatsData.put("overview", buildOverview(series));
+
+        return proStatsData;
+    }
 
-        // 统计概览数据
+    /**
+     * 读取最近days天的数据行，并提取各序列的时间戳和数值列
+     */
+    private ProSeries loadProSeries(int days, int maxPoints) {
+        // 限制查询天数，防止过大查询
+        int limitedDays = Math.min(days, 90);
+        LocalDateTime end = LocalDateTime.now();
+        LocalDateTime start = end.minusDays(limitedDays);
+
+        Optional<RollupResolution> resolution = rollupService.selectResolution(Duration.between(start, end), maxPoints,
+                List.of(RollupResolution.DAY, RollupResolution.HOUR, RollupResolution.MINUTE));
+        List<StatisticsRollup> rows = resolution
+                .map(r -> rollupService.aggregateStatistics(start, end, r.getUnit()))
+                .orElseGet(() -> statisticsRepository.findByCreateTimeBetween(start, end).stream()
+                        .sorted(Comparator.comparing(Statistics::getCreateTime))
+                        .map(this::toRollupRow)
+                        .toList());
+
+        ProSeries series = new ProSeries();
+        series.rows = rows;
+        series.resolution = resolution.map(RollupResolution::getUnit).orElse("raw");
+
+        int size = rows.size();
+        series.times = new long[size];
+        series.indexes = new double[size];
+        series.turnovers = new double[size];
+        series.addNums = new double[size];
+        for (int i = 0; i < size; i++) {
+            StatisticsRollup row = rows.get(i);
+            series.times[i] = row.getBucketStart().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            series.indexes[i] = valueOrNaN(row.getIndexClose());
+            series.turnovers[i] = valueOrNaN(row.getTurnoverClose());
+            series.addNums[i] = parseNumber(row.getAddNumClose());
+        }
+
+        // 按天聚合的成交额数据（当天所有采样的平均值）
+        TreeMap<LocalDate, StatisticsRollup> dailyRows = new TreeMap<>();
+        double totalTurnover = 0;
+        for (StatisticsRollup row : rows) {
+            totalTurnover += row.getTurnoverSum() != null ? row.getTurnoverSum() : 0;
+            dailyRows.merge(row.getBucketStart().toLocalDate(), row, (a, b) -> StatisticsRollup.builder()
+                    .bucketStart(a.getBucketStart())
+                    .count(a.getCount() + b.getCount())
+                    .turnoverSum(sumOrZero(a.getTurnoverSum()) + sumOrZero(b.getTurnoverSum()))
+                    .yesterdayTurnoverSum(sumOrZero(a.getYesterdayTurnoverSum()) + sumOrZero(b.getYesterdayTurnoverSum()))
+                    .build());
+        }
+        series.totalTurnover = totalTurnover;
+
+        series.dailyRows = new ArrayList<>(dailyRows.values());
+        int dayCount = series.dailyRows.size();
+        series.dailyTimes = new long[dayCount];
+        series.dailyTurnovers = new double[dayCount];
+        series.dailyYesterdayTurnovers = new double[dayCount];
+        for (int i = 0; i < dayCount; i++) {
+            StatisticsRollup day = series.dailyRows.get(i);
+            series.dailyTimes[i] = day.getBucketStart().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            series.dailyTurnovers[i] = day.getCount() > 0 ? sumOrZero(day.getTurnoverSum()) / day.getCount() : 0.0;
+            series.dailyYesterdayTurnovers[i] =
+                    day.getCount() > 0 ? sumOrZero(day.getYesterdayTurnoverSum()) / day.getCount() : 0.0;
+        }
+        return series;
+    }
+
+    /**
+     * 统计概览数据
+     */
+    private Map<String, Object> buildOverview(ProSeries series) {
         Map<String, Object> overview = new HashMap<>();
-        if (!statisticsList.isEmpty()) {
-            Statistics latest = statisticsList.get(statisticsList.size() - 1);
-            overview.put("latestIndex", latest.getBroadMarketIndex());
-            overview.put("surviveNum", latest.getSurviveNum());
-            overview.put("holdersNum", latest.getHoldersNum());
-            overview.put("riseFallType", latest.getRiseFallType());
-            overview.put("riseFallDays", latest.getRiseFallDays());
-
-            // 计算总成交额
-            double totalTurnover = statisticsList.stream()
-                    .filter(stats -> stats.getTodayStatistics() != null)
-                    .mapToDouble(stats -> stats.getTodayStatistics().getTurnover())
-                    .sum();
-            overview.put("totalTurnover", totalTurnover);
+        if (!series.rows.isEmpty()) {
+            StatisticsRollup lastRow = series.rows.get(series.rows.size() - 1);
+            overview.put("latestIndex", lastRow.getIndexClose());
+            getLatest().ifPresent(latest -> {
+                overview.put("surviveNum", latest.getSurviveNum());
+                overview.put("holdersNum", latest.getHoldersNum());
+                overview.put("riseFallType", latest.getRiseFallType());
+                overview.put("riseFallDays", latest.getRiseFallDays());
+            });
+            overview.put("totalTurnover", series.totalTurnover);
         }
+        return overview;
+    }
 
-        proStatsData.put("overview", overview);
+    /**
+     * 将单条原始采样转换为汇总行，使原始数据和汇总数据走同一套处理逻辑
+     */
+    private StatisticsRollup toRollupRow(Statistics stats) {
+        Double turnover = stats.getTodayStatistics() != null ? stats.getTodayStatistics().getTurnover() : null;
+        Double yesterdayTurnover = stats.getYesterdayStatistics() != null
+                ? stats.getYesterdayStatistics().getTurnover()
+                : null;
+        return StatisticsRollup.builder()
+                .bucketStart(stats.getCreateTime())
+                .count(1L)
+                .indexOpen(stats.getBroadMarketIndex())
+                .indexHigh(stats.getBroadMarketIndex())
+                .indexLow(stats.getBroadMarketIndex())
+                .indexClose(stats.getBroadMarketIndex())
+                .indexSum(stats.getBroadMarketIndex())
+                .diffRatioClose(stats.getDiffYesterdayRatio())
+                .turnoverOpen(turnover)
+                .turnoverHigh(turnover)
+                .turnoverLow(turnover)
+                .turnoverClose(turnover)
+                .turnoverSum(turnover)
+                .turnoverCount(turnover != null ? 1L : 0L)
+                .yesterdayTurnoverClose(yesterdayTurnover)
+                .yesterdayTurnoverSum(yesterdayTurnover)
+                .addNumClose(stats.getTodayStatistics() != null ? stats.getTodayStatistics().getAddNum() : null)
+                .yesterdayAddNumClose(
+                        stats.getYesterdayStatistics() != null ? stats.getYesterdayStatistics().getAddNum() : null)
+                .build();
+    }
 
-        return proStatsData;
+    private static double parseNumber(String value) {
+        if (value == null) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(value.replace(",", ""));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static double sumOrZero(Double value) {
+        return value != null ? value : 0.0;
+    }
+
+    private static double valueOrNaN(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    /**
+     * 专业统计数据的数据行及按行对齐的数值列
+     */
+    private static final class ProSeries {
+
+        private List<StatisticsRollup> rows;
+        private String resolution;
+        private long[] times;
+        private double[] indexes;
+        private double[] turnovers;
+        private double[] addNums;
+        private double totalTurnover;
+        private List<StatisticsRollup> dailyRows;
+        private long[] dailyTimes;
+        private double[] dailyTurnovers;
+        private double[] dailyYesterdayTurnovers;
     }
 
     /**
      * 获取时间段内的统计数据分析
+     * <p>
+     * 按时间间隔分桶聚合，数据来自对应分辨率的汇总集合（尚未汇总的最新数据从原始集合补齐），
+     * 只有每个时间桶的聚合结果会返回到应用。
+     * 时间桶按间隔对齐，开始时间和结束时间所在的桶都完整返回（结束时间处的采样包含在内）。
      *
      * @param startTime 开始时间
      * @param endTime   结束时间
-     * @param interval  时间间隔类型
+     * @param interval  时间间隔类型（hourly、daily、weekly）
      * @return 时间段内的统计分析数据
      */
+    @Cacheable
     public Map<String, Object> getStatisticsByPeriod(LocalDateTime startTime, LocalDateTime endTime, String interval) {
         // 如果未提供开始时间，默认为7天前
         LocalDateTime start = startTime != null ? startTime : LocalDateTime.now().minusDays(7);
         // 如果未提供结束时间，默认为当前时间
         LocalDateTime end = endTime != null ? endTime : LocalDateTime.now();
 
-        List<Statistics> statisticsList = statisticsRepository.findByCreateTimeBetween(start, end);
+        List<StatisticsRollup> rows = rollupService.aggregateStatistics(start, end, resolveTruncateUnit(interval));
+
+        // 在时间桶结果上汇总整个时间段
+        List<Map<String, Object>> buckets = new ArrayList<>(rows.size());
+        double maxIndex = Double.NEGATIVE_INFINITY;
+        double minIndex = Double.POSITIVE_INFINITY;
+        double indexSum = 0;
+        long indexCount = 0;
+        double totalTurnover = 0;
+        long turnoverCount = 0;
+
+        for (StatisticsRollup row : rows) {
+            long count = row.getCount() != null ? row.getCount() : 0;
+            if (row.getIndexHigh() != null && row.getIndexLow() != null && row.getIndexSum() != null) {
+                maxIndex = Math.max(maxIndex, row.getIndexHigh());
+                minIndex = Math.min(minIndex, row.getIndexLow());
+                indexSum += row.getIndexSum();
+                indexCount += count;
+            }
+            double bucketTurnover = row.getTurnoverSum() != null ? row.getTurnoverSum() : 0;
+            long bucketTurnoverCount = row.getTurnoverCount() != null ? row.getTurnoverCount() : 0;
+            totalTurnover += bucketTurnover;
+            turnoverCount += bucketTurnoverCount;
+
+            Map<String, Object> indexBucket = new HashMap<>();
+            indexBucket.put("min", row.getIndexLow());
+            indexBucket.put("max", row.getIndexHigh());
+            indexBucket.put("avg", count > 0 && row.getIndexSum() != null ? row.getIndexSum() / count : null);
+            indexBucket.put("first", row.getIndexOpen());
+            indexBucket.put("last", row.getIndexClose());
+
+            Map<String, Object> turnoverBucket = new HashMap<>();
+            turnoverBucket.put("min", row.getTurnoverLow());
+            turnoverBucket.put("max", row.getTurnoverHigh());
+            turnoverBucket.put("avg", bucketTurnoverCount > 0 ? bucketTurnover / bucketTurnoverCount : null);
+            turnoverBucket.put("first", row.getTurnoverOpen());
+            turnoverBucket.put("last", row.getTurnoverClose());
+            turnoverBucket.put("total", bucketTurnover);
+
+            Map<String, Object> bucket = new HashMap<>();
+            bucket.put("time", row.getBucketStart().toString());
+            bucket.put("count", count);
+            bucket.put("index", indexBucket);
+            bucket.put("turnover", turnoverBucket);
+            buckets.add(bucket);
+        }
+
+        if (indexCount == 0) {
+            maxIndex = 0;
+            minIndex = 0;
+        }
+        double avgIndex = indexCount > 0 ? indexSum / indexCount : 0;
 
         Map<String, Object> periodData = new HashMap<>();
 
-        // 分析市场指数变化
-        double maxIndex = statisticsList.stream()
-                .mapToDouble(Statistics::getBroadMarketIndex)
-                .max().orElse(0);
-        double minIndex = statisticsList.stream()
-                .mapToDouble(Statistics::getBroadMarketIndex)
-                .min().orElse(0);
-        double avgIndex = statisticsList.stream()
-                .mapToDouble(Statistics::getBroadMarketIndex)
-                .average().orElse(0);
-
         Map<String, Object> indexAnalysis = new HashMap<>();
         indexAnalysis.put("max", maxIndex);
         indexAnalysis.put("min", minIndex);
@@ -257,21 +452,26 @@ public class StatisticsService {
         periodData.put("indexAnalysis", indexAnalysis);
 
         // 成交额分析
-        double totalTurnover = statisticsList.stream()
-                .filter(stats -> stats.getTodayStatistics() != null)
-                .mapToDouble(stats -> stats.getTodayStatistics().getTurnover())
-                .sum();
-        double avgTurnover = statisticsList.stream()
-                .filter(stats -> stats.getTodayStatistics() != null)
-                .mapToDouble(stats -> stats.getTodayStatistics().getTurnover())
-                .average().orElse(0);
-
         Map<String, Object> turnoverAnalysis = new HashMap<>();
         turnoverAnalysis.put("total", totalTurnover);
-        turnoverAnalysis.put("avg", avgTurnover);
+        turnoverAnalysis.put("avg", turnoverCount > 0 ? totalTurnover / turnoverCount : 0);
 
         periodData.put("turnoverAnalysis", turnoverAnalysis);
+        periodData.put("interval", interval);
+        periodData.put("buckets", buckets);
 
         return periodData;
     }
-}
\ No newline at end of file
+
+    /**
+     * 将时间间隔类型转换为 $dateTrunc 的时间单位
+     */
+    private String resolveTruncateUnit(String interval) {
+        return switch (interval == null ? "hourly" : interval.toLowerCase()) {
+            case "hourly" -> "hour";
+            case "daily" -> "day";
+            case "weekly" -> "week";
+            default -> throw new IllegalArgumentException("不支持的时间间隔类型: " + interval);
+        };
+    }
+}
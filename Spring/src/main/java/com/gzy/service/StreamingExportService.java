@@ -0,0 +1,71 @@
+package com.gzy.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 流式导出服务
+ * <p>
+ * 通过MongoDB游标逐条读取文档并立即写出到响应流，堆内存占用与导出范围大小无关。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StreamingExportService {
+
+    private static final int CURSOR_BATCH_SIZE = 200;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 按创建时间范围导出
+     *
+     * @param jsonArray true 输出分块写出的JSON数组，false 输出NDJSON（每行一个文档）
+     */
+    public <T> StreamingResponseBody exportByTimeRange(Class<T> entityClass, LocalDateTime start, LocalDateTime end,
+            boolean jsonArray) {
+        Query query = Query.query(Criteria.where("createTime").gte(start).lte(end))
+                .with(Sort.by(Sort.Direction.ASC, "createTime"))
+                .cursorBatchSize(CURSOR_BATCH_SIZE);
+
+        return outputStream -> {
+            long count = 0;
+            try (Stream<T> documents = mongoTemplate.stream(query, entityClass);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                if (jsonArray) {
+                    generator.writeStartArray();
+                }
+
+                Iterator<T> iterator = documents.iterator();
+                while (iterator.hasNext()) {
+                    objectMapper.writeValue(generator, iterator.next());
+                    if (!jsonArray) {
+                        generator.writeRaw('\n');
+                    }
+                    generator.flush();
+                    count++;
+                }
+
+                if (jsonArray) {
+                    generator.writeEndArray();
+                }
+                generator.flush();
+            }
+            log.info("流式导出 {} 完成，共 {} 条记录", entityClass.getSimpleName(), count);
+        };
+    }
+}
@@ -0,0 +1,233 @@
+package com.gzy.service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 抓取数据的延迟批量写入缓冲区
+ * <p>
+ * 爬虫提交的文档进入缓冲区，缓冲区按数量（batch-size）或时间（flush-interval-ms）攒批，
+ * 按实体类型以无序批量插入写入MongoDB，同一时刻只有一个批次在写入。
+ * 批量写入失败的文档按指数退避重试（max-retries / retry-backoff-ms）。enqueue 在文档进入缓冲区时即完成，
+ * 同时交给提交方一个写入确认：所在批次确认写入后发出该文档，重试耗尽时以错误结束，
+ * 爬虫据此在后台推进关键帧、去重基准等依赖已落库数据的状态，抓取本身不等待MongoDB写入。
+ * 缓冲区容量有上限，写满时提交方等待（不阻塞线程）直到有空位或超时；应用关闭时写出剩余数据。
+ * 文档ID由调用方在提交前生成，重试时按ID重复识别已写入的文档（时间序列集合不校验ID唯一，
+ * 写入结果未知时的重试可能留下重复采样）。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WriteBehindBuffer {
+
+    private static final Duration RETRY_DELAY = Duration.ofMillis(50);
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Value("${csgo.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${csgo.write-behind.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${csgo.write-behind.capacity:10000}")
+    private int capacity;
+
+    @Value("${csgo.write-behind.enqueue-timeout-ms:5000}")
+    private long enqueueTimeoutMs;
+
+    @Value("${csgo.write-behind.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs;
+
+    @Value("${csgo.write-behind.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${csgo.write-behind.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    private Sinks.Many<Pending> sink;
+    private final CountDownLatch drained = new CountDownLatch(1);
+
+    @PostConstruct
+    public void start() {
+        sink = Sinks.many().unicast().onBackpressureBuffer(Queues.<Pending>get(capacity).get());
+        sink.asFlux()
+                .bufferTimeout(batchSize, Duration.ofMillis(flushIntervalMs), true)
+                .concatMap(this::flush, 1)
+                .doFinally(signal -> drained.countDown())
+                .subscribe();
+    }
+
+    /**
+     * 提交待写入的文档，所在批次确认写入后发出该文档；缓冲区写满超过等待时间或重试耗尽仍未写入时以错误结束
+     */
+    public <T> Mono<T> submit(T document) {
+        return enqueue(document).flatMap(written -> written);
+    }
+
+    /**
+     * 提交待写入的文档，进入缓冲区后立即发出写入确认（所在批次确认写入后发出该文档，重试耗尽时以错误结束）；
+     * 缓冲区写满超过等待时间时以错误结束
+     */
+    public <T> Mono<Mono<T>> enqueue(T document) {
+        Pending pending = new Pending(document, Sinks.one());
+        return Mono.defer(() -> {
+                    Sinks.EmitResult result;
+                    // 多个爬虫并发提交，发射需要串行
+                    synchronized (this) {
+                        result = sink.tryEmitNext(pending);
+                    }
+                    if (result.isSuccess()) {
+                        return Mono.<Void>empty();
+                    }
+                    return Mono.<Void>error(result == Sinks.EmitResult.FAIL_OVERFLOW
+                            ? new BufferFullException()
+                            : new IllegalStateException("写入缓冲区已关闭: " + result));
+                })
+                .retryWhen(Retry.fixedDelay(Math.max(1, enqueueTimeoutMs / RETRY_DELAY.toMillis()), RETRY_DELAY)
+                        .filter(BufferFullException.class::isInstance)
+                        .onRetryExhaustedThrow((spec, signal) -> new IllegalStateException(
+                                "写入缓冲区已满，等待 " + enqueueTimeoutMs + "ms 后仍无空位")))
+                .then(Mono.fromSupplier(() -> pending.written().asMono().thenReturn(document)));
+    }
+
+    /**
+     * 按实体类型分组，以无序批量插入写出一个批次
+     */
+    private Mono<Void> flush(List<Pending> batch) {
+        Map<Class<?>, List<Pending>> byType = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            byType.computeIfAbsent(pending.document().getClass(), type -> new ArrayList<>()).add(pending);
+        }
+
+        return Flux.fromIterable(byType.entrySet())
+                .concatMap(entry -> write(entry.getKey(), entry.getValue(), 0))
+                .then();
+    }
+
+    /**
+     * 写入同一类型的文档，成功的逐个确认；失败的按指数退避只重试未写入的部分，重试耗尽后通知提交方
+     */
+    private Mono<Void> write(Class<?> type, List<Pending> pending, int attempt) {
+        List<Object> documents = new ArrayList<>(pending.size());
+        for (Pending p : pending) {
+            documents.add(p.document());
+        }
+
+        return reactiveMongoTemplate.bulkOps(BulkMode.UNORDERED, type)
+                .insert(documents)
+                .execute()
+                .doOnNext(result -> log.debug("批量写入 {} 条 {}", result.getInsertedCount(), type.getSimpleName()))
+                .then(Mono.fromRunnable(() -> pending.forEach(Pending::acknowledge)))
+                .onErrorResume(e -> {
+                    List<Pending> failed = unwritten(pending, e);
+                    if (failed.isEmpty()) {
+                        return Mono.empty();
+                    }
+                    if (attempt >= maxRetries) {
+                        log.error("批量写入 {} 条 {} 失败，已重试 {} 次，放弃写入: {}", failed.size(),
+                                type.getSimpleName(), attempt, e.getMessage(), e);
+                        IllegalStateException error = new IllegalStateException(
+                                "批量写入 " + type.getSimpleName() + " 失败: " + e.getMessage(), e);
+                        failed.forEach(p -> p.fail(error));
+                        return Mono.empty();
+                    }
+                    long delayMs = retryBackoffMs << attempt;
+                    log.warn("批量写入 {} 条 {} 失败，{}ms 后第 {} 次重试: {}", failed.size(),
+                            type.getSimpleName(), delayMs, attempt + 1, e.getMessage());
+                    return Mono.delay(Duration.ofMillis(delayMs)).then(write(type, failed, attempt + 1));
+                })
+                .then();
+    }
+
+    /**
+     * 从批量写入错误中找出未写入的文档并确认其余文档：按ID重复（11000）说明之前的尝试已写入；
+     * 无法判断写入结果（网络错误、写关注错误）时全部视为未写入，重试时由ID重复识别
+     */
+    private static List<Pending> unwritten(List<Pending> pending, Throwable error) {
+        List<BulkWriteError> writeErrors = null;
+        for (Throwable t = error; t != null && writeErrors == null; t = t.getCause()) {
+            if (t instanceof MongoBulkWriteException bulk && bulk.getWriteConcernError() == null) {
+                writeErrors = bulk.getWriteErrors();
+            } else if (t instanceof BulkOperationException bulk) {
+                writeErrors = bulk.getErrors();
+            }
+        }
+        if (writeErrors == null) {
+            return pending;
+        }
+
+        boolean[] failed = new boolean[pending.size()];
+        for (BulkWriteError writeError : writeErrors) {
+            if (writeError.getCode() != DUPLICATE_KEY && writeError.getIndex() < failed.length) {
+                failed[writeError.getIndex()] = true;
+            }
+        }
+        List<Pending> unwritten = new ArrayList<>();
+        for (int i = 0; i < failed.length; i++) {
+            if (failed[i]) {
+                unwritten.add(pending.get(i));
+            } else {
+                pending.get(i).acknowledge();
+            }
+        }
+        return unwritten;
+    }
+
+    /**
+     * 关闭时停止接收新文档，并等待缓冲区中剩余的文档写出
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        synchronized (this) {
+            sink.tryEmitComplete();
+        }
+        if (!drained.await(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+            log.warn("等待写入缓冲区清空超时，部分数据可能未写入");
+        }
+    }
+
+    /**
+     * 缓冲区中的文档及其写入确认
+     */
+    private record Pending(Object document, Sinks.One<Void> written) {
+
+        void acknowledge() {
+            written.tryEmitEmpty();
+        }
+
+        void fail(Throwable error) {
+            written.tryEmitError(error);
+        }
+    }
+
+    private static final class BufferFullException extends RuntimeException {
+
+        BufferFullException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.gzy.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * 列式时间序列：时间戳（epoch毫秒）和各列数值分别保存为基本类型数组
+ * <p>
+ * 序列化为 {"ts":[...],"列名":[...],...}，缺失值（NaN）输出为null。
+ * 相比每个点一个Map，不需要为每个点分配对象，也不会在每个元素中重复键名；
+ * 以CBOR输出时数值直接编码为二进制浮点数。
+ */
+@JsonSerialize(using = ColumnarSeries.Serializer.class)
+public final class ColumnarSeries {
+
+    private final long[] ts;
+    private final int[] selection;
+    private final Map<String, double[]> columns = new LinkedHashMap<>();
+
+    private ColumnarSeries(long[] ts, int[] selection) {
+        this.ts = ts;
+        this.selection = selection;
+    }
+
+    /**
+     * 以给定时间戳创建序列，之后添加的列长度必须与时间戳相同
+     */
+    public static ColumnarSeries of(long[] ts) {
+        return new ColumnarSeries(ts, null);
+    }
+
+    /**
+     * 从源序列中选取 selection 指定的行（如LTTB降采样结果），列值按源行下标读取
+     */
+    public static ColumnarSeries select(long[] times, int[] selection) {
+        long[] ts = new long[selection.length];
+        for (int i = 0; i < selection.length; i++) {
+            ts[i] = times[selection[i]];
+        }
+        return new ColumnarSeries(ts, selection);
+    }
+
+    /**
+     * 添加一列，valueAt 参数为源行下标（由 of 创建时即为行号）
+     */
+    public ColumnarSeries column(String name, IntToDoubleFunction valueAt) {
+        double[] values = new double[ts.length];
+        for (int i = 0; i < ts.length; i++) {
+            values[i] = valueAt.applyAsDouble(selection != null ? selection[i] : i);
+        }
+        columns.put(name, values);
+        return this;
+    }
+
+    /**
+     * 添加一列已按行对齐的数值
+     */
+    public ColumnarSeries column(String name, double[] values) {
+        if (values.length != ts.length) {
+            throw new IllegalArgumentException("列 " + name + " 的长度与时间戳不一致");
+        }
+        columns.put(name, values);
+        return this;
+    }
+
+    public int size() {
+        return ts.length;
+    }
+
+    public long[] getTs() {
+        return ts;
+    }
+
+    public Map<String, double[]> getColumns() {
+        return Collections.unmodifiableMap(columns);
+    }
+
+    public static final class Serializer extends StdSerializer<ColumnarSeries> {
+
+        public Serializer() {
+            super(ColumnarSeries.class);
+        }
+
+        @Override
+        public void serialize(ColumnarSeries series, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeFieldName("ts");
+            gen.writeArray(series.ts, 0, series.ts.length);
+            for (Map.Entry<String, double[]> column : series.columns.entrySet()) {
+                gen.writeFieldName(column.getKey());
+                gen.writeStartArray();
+                for (double value : column.getValue()) {
+                    if (Double.isNaN(value)) {
+                        gen.writeNull();
+                    } else {
+                        gen.writeNumber(value);
+                    }
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+    }
+}
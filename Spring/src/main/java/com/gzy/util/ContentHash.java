@@ -0,0 +1,28 @@
+package com.gzy.util;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONWriter;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 内容哈希
+ * <p>
+ * 将对象序列化为字段顺序固定的JSON后计算SHA-256，内容相同的对象得到相同的哈希。
+ */
+public final class ContentHash {
+
+    private ContentHash() {
+    }
+
+    public static String of(Object value) {
+        byte[] bytes = JSON.toJSONBytes(value, JSONWriter.Feature.MapSortField);
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
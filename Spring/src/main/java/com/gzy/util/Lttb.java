@@ -0,0 +1,79 @@
+package com.gzy.util;
+
+/**
+ * Largest-Triangle-Three-Buckets 降采样
+ * <p>
+ * 保留首尾两点，其余数据均分为 threshold - 2 个桶，每个桶选出与前一个选中点、下一个桶均值点
+ * 构成三角形面积最大的点，在大幅减少点数的同时保留曲线的峰谷形状。
+ */
+public final class Lttb {
+
+    private Lttb() {
+    }
+
+    /**
+     * 计算降采样后保留的下标（升序）
+     *
+     * @param x         横坐标（通常为时间戳），需升序
+     * @param y         纵坐标，NaN 按 0 处理
+     * @param threshold 目标点数，小于3或不小于原始点数时保留全部
+     * @return 保留点的下标
+     */
+    public static int[] select(long[] x, double[] y, int threshold) {
+        int n = x.length;
+        if (threshold < 3 || threshold >= n) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] sampled = new int[threshold];
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+        int k = 0;
+        sampled[k++] = 0;
+
+        for (int i = 0; i < threshold - 2; i++) {
+            // 下一个桶的均值点
+            int avgStart = (int) Math.floor((i + 1) * every) + 1;
+            int avgEnd = Math.min((int) Math.floor((i + 2) * every) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += x[j] - x[0];
+                avgY += valueAt(y, j);
+            }
+            int avgLength = avgEnd - avgStart;
+            avgX /= avgLength;
+            avgY /= avgLength;
+
+            // 当前桶中与前一个选中点、下一个桶均值点构成最大三角形的点
+            int rangeStart = (int) Math.floor(i * every) + 1;
+            int rangeEnd = (int) Math.floor((i + 1) * every) + 1;
+            double pointAX = x[a] - x[0];
+            double pointAY = valueAt(y, a);
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((pointAX - avgX) * (valueAt(y, j) - pointAY)
+                        - (pointAX - (x[j] - x[0])) * (avgY - pointAY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+
+            sampled[k++] = next;
+            a = next;
+        }
+
+        sampled[k] = n - 1;
+        return sampled;
+    }
+
+    private static double valueAt(double[] y, int i) {
+        return Double.isNaN(y[i]) ? 0 : y[i];
+    }
+}
@@ -0,0 +1,29 @@
+package com.gzy.config;
+
+import com.gzy.service.SnapshotPublishedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.interceptor.KeyGenerator;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalysisCacheConfigTest {
+
+    private final AnalysisCacheConfig config = new AnalysisCacheConfig();
+
+    @Test
+    void publishedSnapshotMovesKeysOfItsOwnCacheOnly() throws Exception {
+        KeyGenerator itemBlockKeys = config.itemBlockKeyGenerator();
+        KeyGenerator statisticsKeys = config.statisticsKeyGenerator();
+        Method method = Object.class.getMethod("toString");
+
+        // 发布前开始的计算记在旧键下，发布后的读取使用新键
+        Object before = itemBlockKeys.generate(this, method, 7);
+        Object statisticsBefore = statisticsKeys.generate(this, method, 7);
+        config.onSnapshotPublished(new SnapshotPublishedEvent(this, SnapshotPublishedEvent.Kind.ITEM_BLOCK));
+
+        assertThat(itemBlockKeys.generate(this, method, 7)).isNotEqualTo(before);
+        assertThat(statisticsKeys.generate(this, method, 7)).isEqualTo(statisticsBefore);
+    }
+}
@@ -0,0 +1,43 @@
+package com.gzy.controller;
+
+import com.gzy.crawler.CrawlScheduler;
+import com.gzy.repository.ItemBlockRepository;
+import com.gzy.service.ItemBlockService;
+import com.gzy.service.KeysetPaginationService;
+import com.gzy.service.LatestSnapshotStore;
+import com.gzy.service.ResponseBodyCache;
+import com.gzy.service.StreamingExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ItemBlockControllerTest {
+
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ItemBlockController(
+            mock(ItemBlockRepository.class),
+            mock(CrawlScheduler.class),
+            mock(LatestSnapshotStore.class),
+            mock(ResponseBodyCache.class),
+            mock(StreamingExportService.class),
+            new KeysetPaginationService(mock(MongoTemplate.class)),
+            mock(ItemBlockService.class))).build();
+
+    @Test
+    void malformedSeekCursorIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/item-block/list/seek").param("cursor", "!!!"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/item-block/list/seek").param("cursor", "MTIzOmFiYw"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void outOfRangeSeekSizeIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/item-block/list/seek").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,171 @@
+package com.gzy.service;
+
+import com.gzy.entity.ItemBlockCategory;
+import com.gzy.entity.ItemBlockData;
+import com.gzy.entity.ItemBlockDelta;
+import com.gzy.entity.ItemBlockItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemBlockDeltaCodecTest {
+
+    @Test
+    void unchangedSnapshotEncodesToEmptyDelta() {
+        ItemBlockData keyframe = data(items("hot", 10, 0));
+
+        ItemBlockDelta delta = ItemBlockDeltaCodec.encode(keyframe, data(items("hot", 10, 0)));
+
+        assertThat(delta).isNotNull();
+        assertThat(delta.getHot()).isNull();
+        assertThat(ItemBlockDeltaCodec.apply(keyframe, delta)).isEqualTo(keyframe);
+    }
+
+    @Test
+    void changedValuesAndOrderRoundTrip() {
+        ItemBlockData keyframe = data(items("hot", 10, 0));
+        List<ItemBlockItem> changed = items("hot", 10, 0);
+        changed.get(2).setIndex(999.5);
+        changed.get(7).setRiseFallRate(-0.25);
+        Collections.swap(changed, 0, 1);
+        ItemBlockData current = data(changed);
+
+        ItemBlockDelta delta = ItemBlockDeltaCodec.encode(keyframe, current);
+
+        assertThat(delta).isNotNull();
+        assertThat(delta.getHot().getDefaultList().getChanged()).hasSize(2);
+        assertThat(delta.getHot().getDefaultList().getOrder()).hasSize(10);
+        assertThat(ItemBlockDeltaCodec.apply(keyframe, delta)).isEqualTo(current);
+    }
+
+    @Test
+    void membershipChangeRoundTrips() {
+        ItemBlockData keyframe = data(items("hot", 10, 0));
+        List<ItemBlockItem> changed = items("hot", 10, 0);
+        changed.remove(9);
+        changed.add(0, item("hot", 42, 0));
+        ItemBlockData current = data(changed);
+
+        ItemBlockDelta delta = ItemBlockDeltaCodec.encode(keyframe, current);
+
+        assertThat(delta).isNotNull();
+        assertThat(delta.getHot().getDefaultList().getChanged()).extracting(ItemBlockItem::getName)
+                .containsExactly("hot-42");
+        assertThat(ItemBlockDeltaCodec.apply(keyframe, delta)).isEqualTo(current);
+    }
+
+    @Test
+    void fallsBackToKeyframeWhenMoreThanHalfChanged() {
+        ItemBlockData keyframe = data(items("hot", 10, 0));
+
+        assertThat(ItemBlockDeltaCodec.encode(keyframe, data(items("hot", 10, 1)))).isNull();
+
+        // 13个物品（默认列表10个、涨幅榜3个）中变化5个，仍编码为增量
+        List<ItemBlockItem> fewer = items("hot", 10, 0);
+        for (int i = 3; i < 8; i++) {
+            fewer.get(i).setIndex(-1.0);
+        }
+        ItemBlockData current = data(fewer);
+        ItemBlockDelta delta = ItemBlockDeltaCodec.encode(keyframe, current);
+        assertThat(delta).isNotNull();
+        assertThat(ItemBlockDeltaCodec.apply(keyframe, delta)).isEqualTo(current);
+
+        // 再变化2个（含涨幅榜中的1个，计为2次变化）即超过一半
+        fewer.get(0).setIndex(-1.0);
+        fewer.get(8).setIndex(-1.0);
+        assertThat(ItemBlockDeltaCodec.encode(keyframe, data(fewer))).isNull();
+    }
+
+    @Test
+    void fallsBackToKeyframeWhenCategoryStructureDiffers() {
+        ItemBlockData keyframe = data(items("hot", 4, 0));
+        ItemBlockData current = data(items("hot", 4, 0));
+        current.setItemTypeLevel1(category(items("level1", 4, 0)));
+
+        assertThat(ItemBlockDeltaCodec.encode(keyframe, current)).isNull();
+        assertThat(ItemBlockDeltaCodec.encode(current, keyframe)).isNull();
+    }
+
+    @Test
+    void nullSnapshotsFallBackToKeyframe() {
+        ItemBlockData data = data(items("hot", 4, 0));
+
+        assertThat(ItemBlockDeltaCodec.encode(null, data)).isNull();
+        assertThat(ItemBlockDeltaCodec.encode(data, null)).isNull();
+    }
+
+    @Test
+    void nullAndEmptyListsRoundTrip() {
+        ItemBlockData keyframe = ItemBlockData.builder()
+                .hot(ItemBlockCategory.builder().defaultList(new ArrayList<>()).build())
+                .build();
+
+        ItemBlockDelta unchanged = ItemBlockDeltaCodec.encode(keyframe, keyframe);
+        assertThat(unchanged).isNotNull();
+        assertThat(ItemBlockDeltaCodec.apply(keyframe, unchanged)).isEqualTo(keyframe);
+
+        ItemBlockData filled = ItemBlockData.builder()
+                .hot(ItemBlockCategory.builder().defaultList(items("hot", 4, 0)).build())
+                .build();
+        ItemBlockDelta fromEmpty = ItemBlockDeltaCodec.encode(keyframe, filled);
+        assertThat(fromEmpty).isNull();
+
+        ItemBlockDelta toEmpty = ItemBlockDeltaCodec.encode(filled, keyframe);
+        assertThat(toEmpty).isNotNull();
+        assertThat(ItemBlockDeltaCodec.apply(filled, toEmpty).getHot().getDefaultList()).isEmpty();
+    }
+
+    @Test
+    void duplicateNamesStoreTheWholeList() {
+        List<ItemBlockItem> top = List.of(item("hot", 0, 0), item("hot", 0, 0));
+        ItemBlockData keyframe = ItemBlockData.builder()
+                .hot(ItemBlockCategory.builder().defaultList(items("hot", 10, 0)).topList(top).build())
+                .build();
+        ItemBlockData current = ItemBlockData.builder()
+                .hot(ItemBlockCategory.builder().defaultList(items("hot", 10, 0))
+                        .topList(List.of(item("hot", 0, 0), item("hot", 0, 1))).build())
+                .build();
+
+        ItemBlockDelta delta = ItemBlockDeltaCodec.encode(keyframe, current);
+
+        assertThat(delta).isNotNull();
+        assertThat(delta.getHot().getDefaultList()).isNull();
+        assertThat(delta.getHot().getTopList().getItems()).hasSize(2);
+        assertThat(ItemBlockDeltaCodec.apply(keyframe, delta)).isEqualTo(current);
+    }
+
+    private static ItemBlockData data(List<ItemBlockItem> defaultList) {
+        return ItemBlockData.builder().hot(category(defaultList)).build();
+    }
+
+    private static ItemBlockCategory category(List<ItemBlockItem> defaultList) {
+        return ItemBlockCategory.builder()
+                .defaultList(defaultList)
+                .topList(new ArrayList<>(defaultList.subList(0, Math.min(3, defaultList.size()))))
+                .bottomList(new ArrayList<>())
+                .build();
+    }
+
+    private static List<ItemBlockItem> items(String prefix, int count, int version) {
+        List<ItemBlockItem> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(item(prefix, i, version));
+        }
+        return result;
+    }
+
+    private static ItemBlockItem item(String prefix, int i, int version) {
+        return ItemBlockItem.builder()
+                .type("HOT")
+                .name(prefix + "-" + i)
+                .level(0)
+                .index(1000.0 + i + version)
+                .riseFallRate(0.01 * i)
+                .riseFallDiff(0.1 * i)
+                .build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.gzy.service;
+
+import com.gzy.entity.ItemBlock;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class KeysetPaginationServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final KeysetPaginationService service = new KeysetPaginationService(mongoTemplate);
+
+    @Test
+    void nextCursorResumesAfterLastRecordOfPage() {
+        LocalDateTime base = LocalDateTime.of(2024, 5, 1, 12, 0, 0);
+        List<ItemBlock> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            rows.add(ItemBlock.builder().id(new ObjectId().toHexString()).createTime(base.minusSeconds(30L * i)).build());
+        }
+        when(mongoTemplate.find(any(Query.class), eq(ItemBlock.class))).thenReturn(rows);
+
+        Map<String, Object> first = page(null, 2);
+
+        assertThat(first.get("hasNext")).isEqualTo(true);
+        assertThat((List<?>) first.get("content")).hasSize(2);
+        String cursor = (String) first.get("nextCursor");
+        assertThat(cursor).isNotBlank().doesNotContain("=", "+", "/");
+
+        ItemBlock last = rows.get(1);
+        long epochMilli = last.getCreateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        assertThat(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8))
+                .isEqualTo(epochMilli + ":" + last.getId());
+
+        page(cursor, 2);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(query.capture(), eq(ItemBlock.class));
+        List<?> or = (List<?>) query.getAllValues().get(1).getQueryObject().get("$or");
+        assertThat(or).hasSize(2);
+        assertThat(or.get(0).toString()).contains("createTime", "$lt", last.getCreateTime().toString());
+        assertThat(or.get(1).toString()).contains("createTime", "_id", "$lt", last.getId());
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        when(mongoTemplate.find(any(Query.class), eq(ItemBlock.class)))
+                .thenReturn(List.of(ItemBlock.builder().id(new ObjectId().toHexString())
+                        .createTime(LocalDateTime.now()).build()));
+
+        Map<String, Object> result = page(null, 10);
+
+        assertThat(result.get("hasNext")).isEqualTo(false);
+        assertThat(result.get("nextCursor")).isNull();
+        verify(mongoTemplate, never()).count(any(Query.class), eq(ItemBlock.class));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"!!!", "not a cursor", "%%%%"})
+    void rejectsCursorThatIsNotBase64(String cursor) {
+        assertRejected(cursor);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "1714536000000",
+            "1714536000000:",
+            "1714536000000:not-an-object-id",
+            "abc:65f1a2b3c4d5e6f708091a2b",
+            ":65f1a2b3c4d5e6f708091a2b",
+            "99999999999999999999:65f1a2b3c4d5e6f708091a2b"
+    })
+    void rejectsMalformedCursorContent(String decoded) {
+        assertRejected(Base64.getUrlEncoder().withoutPadding().encodeToString(decoded.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private void assertRejected(String cursor) {
+        assertThatThrownBy(() -> page(cursor, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("无效的续页令牌");
+        verify(mongoTemplate, never()).find(any(Query.class), eq(ItemBlock.class));
+    }
+
+    private Map<String, Object> page(String cursor, int size) {
+        return service.page(ItemBlock.class, cursor, size, false, ItemBlock::getId, ItemBlock::getCreateTime);
+    }
+}
@@ -0,0 +1,192 @@
+package com.gzy.service;
+
+import com.gzy.entity.ItemBlock;
+import com.gzy.entity.ItemPricePoint;
+import com.gzy.entity.ItemPriceRollup;
+import com.gzy.entity.Statistics;
+import com.gzy.entity.StatisticsRollup;
+import com.gzy.entity.TodayStatistics;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 汇总管道在真实MongoDB上的集成测试：心跳按其引用的采样参与汇总
+ * <p>
+ * 使用 6.0（$locf 需要 5.2 及以上，5.2 没有正式镜像）；本机没有Docker时跳过。
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RollupServiceIntegrationTest {
+
+    @Container
+    private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:6.0");
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private RollupService rollupService;
+
+    // 一天前的整点，汇总任务需要处理到它之后
+    private final LocalDateTime t0 = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.HOURS);
+
+    @BeforeEach
+    void setUp() {
+        client = MongoClients.create(MONGO.getConnectionString());
+        mongoTemplate = new MongoTemplate(client, "rollup_test");
+        mongoTemplate.getDb().drop();
+        rollupService = new RollupService(mongoTemplate);
+        ReflectionTestUtils.setField(rollupService, "enabled", true);
+        ReflectionTestUtils.setField(rollupService, "settleMs", 0L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void statisticsHeartbeatsResolveToReferencedSampleOnRawPath() {
+        insertStatistics();
+
+        List<StatisticsRollup> minutes = rollupService.aggregateStatistics(t0, t0.plusMinutes(3), "minute");
+
+        assertMinuteBuckets(minutes);
+    }
+
+    @Test
+    void statisticsHeartbeatsResolveToSampleBeforeQueryStart() {
+        insertStatistics();
+
+        List<StatisticsRollup> minutes = rollupService.aggregateStatistics(t0.plusMinutes(1), t0.plusMinutes(3), "minute");
+
+        assertThat(minutes).hasSize(2);
+        assertThat(minutes.get(0).getCount()).isEqualTo(2L);
+        assertThat(minutes.get(0).getIndexOpen()).isEqualTo(100.0);
+        assertThat(minutes.get(0).getIndexClose()).isEqualTo(110.0);
+    }
+
+    @Test
+    void statisticsHeartbeatsAreKeptThroughRollupCollections() {
+        insertStatistics();
+
+        rollupService.compact();
+
+        assertMinuteBuckets(rollupService.aggregateStatistics(t0, t0.plusMinutes(3), "minute"));
+        List<StatisticsRollup> hours = rollupService.aggregateStatistics(t0, t0.plusHours(1), "hour");
+        assertThat(hours).hasSize(1);
+        assertThat(hours.get(0).getCount()).isEqualTo(5L);
+        assertThat(hours.get(0).getIndexSum()).isEqualTo(520.0);
+        assertThat(hours.get(0).getTurnoverCount()).isEqualTo(5L);
+    }
+
+    @Test
+    void bucketEdgesDoNotDependOnWhichPathServesTheData() {
+        insertStatistics();
+
+        // 开始时间在桶中间、结束时间恰好在桶边界：两条路径都返回完整的首桶和结束时间所在的桶
+        assertMinuteBuckets(rollupService.aggregateStatistics(t0.plusSeconds(45), t0.plusMinutes(2), "minute"));
+        rollupService.compact();
+        assertMinuteBuckets(rollupService.aggregateStatistics(t0.plusSeconds(45), t0.plusMinutes(2), "minute"));
+    }
+
+    @Test
+    void itemHeartbeatsExpandToRepeatedSnapshotPoints() {
+        mongoTemplate.createCollection(ItemPricePoint.class);
+        mongoTemplate.insert(List.of(
+                point("A", t0, 10.0), point("B", t0, 20.0),
+                point("A", t0.plusSeconds(90), 11.0), point("B", t0.plusSeconds(90), 21.0)), ItemPricePoint.class);
+        mongoTemplate.insert(List.of(
+                itemHeartbeat(t0.plusSeconds(30), t0),
+                itemHeartbeat(t0.plusSeconds(60), t0),
+                itemHeartbeat(t0.plusSeconds(120), t0.plusSeconds(90))), ItemBlock.class);
+
+        rollupService.compact();
+
+        List<ItemPriceRollup> a = rollupService.findItemRollups("A", t0, t0.plusHours(1), RollupResolution.HOUR);
+        assertThat(a).hasSize(1);
+        assertThat(a.get(0).getCount()).isEqualTo(5L);
+        assertThat(a.get(0).getIndexSum()).isEqualTo(52.0);
+        assertThat(a.get(0).getIndexOpen()).isEqualTo(10.0);
+        assertThat(a.get(0).getIndexClose()).isEqualTo(11.0);
+
+        List<ItemPriceRollup> b = rollupService.findItemRollups("B", t0, t0.plusDays(1), RollupResolution.DAY);
+        assertThat(b).hasSize(1);
+        assertThat(b.get(0).getCount()).isEqualTo(5L);
+        assertThat(b.get(0).getIndexSum()).isEqualTo(102.0);
+    }
+
+    /**
+     * t0 采样100，+30s/+60s 心跳重复它；+90s 采样110，+120s 心跳重复它
+     */
+    private void insertStatistics() {
+        Statistics first = sample(t0, 100.0);
+        Statistics second = sample(t0.plusSeconds(90), 110.0);
+        mongoTemplate.insert(List.of(
+                first,
+                heartbeat(t0.plusSeconds(30), first),
+                heartbeat(t0.plusSeconds(60), first),
+                second,
+                heartbeat(t0.plusSeconds(120), second)), Statistics.class);
+    }
+
+    private static void assertMinuteBuckets(List<StatisticsRollup> minutes) {
+        assertThat(minutes).hasSize(3);
+        assertThat(minutes.get(0).getCount()).isEqualTo(2L);
+        assertThat(minutes.get(0).getIndexSum()).isEqualTo(200.0);
+        assertThat(minutes.get(1).getCount()).isEqualTo(2L);
+        assertThat(minutes.get(1).getIndexOpen()).isEqualTo(100.0);
+        assertThat(minutes.get(1).getIndexClose()).isEqualTo(110.0);
+        assertThat(minutes.get(1).getTurnoverSum()).isEqualTo(2100.0);
+        assertThat(minutes.get(2).getCount()).isEqualTo(1L);
+        assertThat(minutes.get(2).getIndexClose()).isEqualTo(110.0);
+    }
+
+    private static Statistics sample(LocalDateTime createTime, double index) {
+        return Statistics.builder()
+                .id(new ObjectId().toHexString())
+                .createTime(createTime)
+                .broadMarketIndex(index)
+                .todayStatistics(TodayStatistics.builder().turnover(index * 10).build())
+                .build();
+    }
+
+    private static Statistics heartbeat(LocalDateTime createTime, Statistics repeated) {
+        return Statistics.builder()
+                .id(new ObjectId().toHexString())
+                .createTime(createTime)
+                .repeatOf(repeated.getId())
+                .build();
+    }
+
+    private static ItemPricePoint point(String itemName, LocalDateTime createTime, double index) {
+        return ItemPricePoint.builder()
+                .itemName(itemName)
+                .createTime(createTime)
+                .index(index)
+                .riseFallRate(0.0)
+                .build();
+    }
+
+    private static ItemBlock itemHeartbeat(LocalDateTime createTime, LocalDateTime repeatOfTime) {
+        return ItemBlock.builder()
+                .id(new ObjectId().toHexString())
+                .createTime(createTime)
+                .repeatOf(new ObjectId().toHexString())
+                .repeatOfTime(repeatOfTime)
+                .keyframeTime(repeatOfTime)
+                .build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.gzy.service;
+
+import com.gzy.entity.ItemBlock;
+import com.gzy.entity.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnapshotVersionTest {
+
+    private final LocalDateTime t0 = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Test
+    void heartbeatKeepsEtagOfRepeatedSnapshot() {
+        ItemBlock keyframe = ItemBlock.builder().id("a").contentHash("h1").createTime(t0).build();
+        ItemBlock heartbeat = ItemBlock.builder().id("b").contentHash("h1").repeatOf("a")
+                .createTime(t0.plusSeconds(30)).build();
+        ItemBlock changed = ItemBlock.builder().id("c").contentHash("h2").createTime(t0.plusSeconds(60)).build();
+
+        assertThat(SnapshotVersion.of(heartbeat).getEtag()).isEqualTo(SnapshotVersion.of(keyframe).getEtag());
+        assertThat(SnapshotVersion.of(heartbeat).getLastModified())
+                .isGreaterThan(SnapshotVersion.of(keyframe).getLastModified());
+        assertThat(SnapshotVersion.of(changed).getEtag()).isNotEqualTo(SnapshotVersion.of(keyframe).getEtag());
+    }
+
+    @Test
+    void legacySamplesWithoutHashUseRepeatedSampleId() {
+        Statistics sample = Statistics.builder().id("a").createTime(t0).build();
+        Statistics heartbeat = Statistics.builder().id("b").repeatOf("a").createTime(t0.plusSeconds(30)).build();
+
+        assertThat(SnapshotVersion.of(heartbeat).getEtag()).isEqualTo("\"a\"");
+        assertThat(SnapshotVersion.of(sample).getEtag()).isEqualTo("\"a\"");
+    }
+}
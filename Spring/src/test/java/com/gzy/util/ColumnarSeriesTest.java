@@ -0,0 +1,57 @@
+package com.gzy.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ColumnarSeriesTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void serializesColumnsAndNaNAsNull() throws Exception {
+        ColumnarSeries series = ColumnarSeries.of(new long[] {1000L, 2000L, 3000L})
+                .column("index", new double[] {1.5, Double.NaN, 3.0})
+                .column("rate", i -> i * 0.5);
+
+        assertThat(objectMapper.writeValueAsString(series))
+                .isEqualTo("{\"ts\":[1000,2000,3000],\"index\":[1.5,null,3.0],\"rate\":[0.0,0.5,1.0]}");
+    }
+
+    @Test
+    void selectReadsColumnsBySourceRow() throws Exception {
+        long[] times = {1000L, 2000L, 3000L, 4000L};
+        double[] values = {10, Double.NaN, 30, 40};
+
+        ColumnarSeries series = ColumnarSeries.select(times, new int[] {0, 1, 3})
+                .column("index", i -> values[i]);
+
+        assertThat(series.size()).isEqualTo(3);
+        assertThat(objectMapper.writeValueAsString(series))
+                .isEqualTo("{\"ts\":[1000,2000,4000],\"index\":[10.0,null,40.0]}");
+    }
+
+    @Test
+    void cborKeepsNaNAsNull() throws Exception {
+        ColumnarSeries series = ColumnarSeries.of(new long[] {1000L, 2000L})
+                .column("index", new double[] {Double.NaN, 2.5});
+
+        JsonNode node = new CBORMapper().readTree(new CBORMapper().writeValueAsBytes(series));
+
+        assertThat(node.get("index").get(0).isNull()).isTrue();
+        assertThat(node.get("index").get(1).doubleValue()).isEqualTo(2.5);
+        assertThat(node.get("ts").get(1).longValue()).isEqualTo(2000L);
+    }
+
+    @Test
+    void rejectsMisalignedColumn() {
+        ColumnarSeries series = ColumnarSeries.of(new long[] {1000L, 2000L});
+
+        assertThatThrownBy(() -> series.column("index", new double[] {1.0}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,74 @@
+package com.gzy.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LttbTest {
+
+    @Test
+    void keepsAllPointsWhenThresholdIsNotSmaller() {
+        long[] x = timestamps(5);
+        double[] y = {1, 2, 3, 4, 5};
+
+        assertThat(Lttb.select(x, y, 5)).containsExactly(0, 1, 2, 3, 4);
+        assertThat(Lttb.select(x, y, 100)).containsExactly(0, 1, 2, 3, 4);
+        assertThat(Lttb.select(x, y, 2)).containsExactly(0, 1, 2, 3, 4);
+        assertThat(Lttb.select(new long[0], new double[0], 10)).isEmpty();
+    }
+
+    @Test
+    void selectsThresholdIndicesInAscendingOrderWithEndpoints() {
+        int n = 1000;
+        long[] x = timestamps(n);
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            y[i] = Math.sin(i / 25.0);
+        }
+
+        int[] selected = Lttb.select(x, y, 50);
+
+        assertThat(selected).hasSize(50);
+        assertThat(selected[0]).isZero();
+        assertThat(selected[49]).isEqualTo(n - 1);
+        for (int i = 1; i < selected.length; i++) {
+            assertThat(selected[i]).isGreaterThan(selected[i - 1]);
+        }
+    }
+
+    @Test
+    void keepsPeaksAndValleys() {
+        int n = 300;
+        long[] x = timestamps(n);
+        double[] y = new double[n];
+        y[100] = 50;
+        y[200] = -50;
+
+        int[] selected = Lttb.select(x, y, 10);
+
+        assertThat(selected).contains(100, 200);
+    }
+
+    @Test
+    void treatsNaNAsZero() {
+        int n = 100;
+        long[] x = timestamps(n);
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            y[i] = i % 7 == 0 ? Double.NaN : 0;
+        }
+        y[60] = 10;
+
+        int[] selected = Lttb.select(x, y, 10);
+
+        assertThat(selected).hasSize(10).contains(60);
+    }
+
+    private static long[] timestamps(int n) {
+        long[] x = new long[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = 1_700_000_000_000L + i * 30_000L;
+        }
+        return x;
+    }
+}
@@ -0,0 +1,146 @@
+package com.gzy.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+
+/**
+ * 基准测试数据生成器
+ * <p>
+ * 按上游接口的响应结构生成响应体，随机数种子固定，同一规模每次生成的字节完全相同。
+ * 直接运行时把各规模的数据写入指定目录，便于查看或替换为录制的真实响应。
+ */
+public final class FixtureGenerator {
+
+    private static final long SEED = 20240601L;
+
+    private static final String[] WEAPONS = {
+            "AK-47", "M4A4", "M4A1 消音型", "AWP", "沙漠之鹰", "格洛克 18 型", "USP 消音版", "P250",
+            "FN57", "MP9", "MAC-10", "UMP-45", "P90", "SSG 08", "加利尔 AR", "法玛斯"
+    };
+    private static final String[] FINISHES = {
+            "红线", "二西莫夫", "火神", "血腥运动", "皇后", "霓虹革命", "表面淬火", "深红之网",
+            "渐变之色", "多普勒", "传承", "燃料喷射器", "野荷", "荒野反叛", "水栽竹", "黑色魅影"
+    };
+    private static final String[] WEARS = {"崭新出厂", "略有磨损", "久经沙场", "破损不堪", "战痕累累"};
+    private static final String[] TYPE_VALS = {
+            "weapon_ak47", "weapon_m4a1", "weapon_m4a1_silencer", "weapon_awp", "weapon_deagle",
+            "weapon_glock", "weapon_usp_silencer", "weapon_p250", "weapon_fiveseven", "weapon_mp9",
+            "weapon_mac10", "weapon_ump45", "weapon_p90", "weapon_ssg08", "weapon_galilar", "weapon_famas"
+    };
+    private static final String[] CATEGORIES = {"hot", "itemTypeLevel1", "itemTypeLevel2", "itemTypeLevel3"};
+
+    private FixtureGenerator() {
+    }
+
+    /**
+     * 生成ItemBlock响应：4个分类，每个分类包含 defaultList / topList / bottomList
+     */
+    public static byte[] itemBlock(FixtureSize size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        StringBuilder json = new StringBuilder(size.getDefaultListSize() * 1024);
+        json.append("{\"success\":true,\"errorCode\":0,\"errorMsg\":null,\"errorData\":null,\"errorCodeStr\":null,\"data\":{");
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(CATEGORIES[i]).append("\":{");
+            appendItemList(json, "defaultList", size.getDefaultListSize(), i + 1, random);
+            json.append(',');
+            appendItemList(json, "topList", size.getRankListSize(), i + 1, random);
+            json.append(',');
+            appendItemList(json, "bottomList", size.getRankListSize(), i + 1, random);
+            json.append('}');
+        }
+        json.append("}}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 生成Steam统计响应：historyMarketIndexList 按天一个点，其余字段与上游一致
+     */
+    public static byte[] statistics(FixtureSize size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        int points = size.getHistoryPoints();
+        StringBuilder json = new StringBuilder(points * 32 + 1024);
+        double index = 1000 + random.nextDouble() * 500;
+        json.append("{\"success\":true,\"errorCode\":0,\"errorMsg\":null,\"errorData\":null,\"errorCodeStr\":null,\"data\":{")
+                .append("\"broadMarketIndex\":").append(round(index, 2))
+                .append(",\"diffYesterday\":").append(round(random.nextDouble() * 40 - 20, 2))
+                .append(",\"diffYesterdayRatio\":").append(round(random.nextDouble() * 4 - 2, 2))
+                .append(",\"surviveNum\":\"").append(30_000_000 + random.nextInt(5_000_000)).append('"')
+                .append(",\"holdersNum\":\"").append(5_000_000 + random.nextInt(1_000_000)).append('"')
+                .append(",\"riseFallType\":\"").append(random.nextBoolean() ? "RISE" : "FALL").append('"')
+                .append(",\"riseFallDays\":").append(1 + random.nextInt(7))
+                .append(",\"historyMarketIndexList\":[");
+        // 从 2024-06-01 00:00 (UTC+8) 向前按天倒推
+        long end = 1717171200L;
+        for (int i = 0; i < points; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            index = Math.max(100, index * (1 + (random.nextDouble() - 0.5) * 0.04));
+            json.append('[').append(end - (long) (points - 1 - i) * 86400).append(',').append(round(index, 2)).append(']');
+        }
+        json.append("],\"todayStatistics\":{")
+                .append("\"addNum\":\"").append(random.nextInt(200_000)).append('"')
+                .append(",\"addValuation\":").append(round(random.nextDouble() * 1e8, 2))
+                .append(",\"tradeNum\":\"").append(random.nextInt(500_000)).append('"')
+                .append(",\"turnover\":").append(round(random.nextDouble() * 1e8, 2))
+                .append(",\"addNumRatio\":").append(round(random.nextDouble() * 20 - 10, 2))
+                .append(",\"addAmountRatio\":").append(round(random.nextDouble() * 20 - 10, 2))
+                .append(",\"tradeVolumeRatio\":").append(round(random.nextDouble() * 20 - 10, 2))
+                .append(",\"tradeAmountRatio\":").append(round(random.nextDouble() * 20 - 10, 2))
+                .append("},\"yesterdayStatistics\":{")
+                .append("\"addNum\":\"").append(random.nextInt(200_000)).append('"')
+                .append(",\"addValuation\":").append(round(random.nextDouble() * 1e8, 2))
+                .append(",\"tradeNum\":\"").append(random.nextInt(500_000)).append('"')
+                .append(",\"turnover\":").append(round(random.nextDouble() * 1e8, 2))
+                .append("}}}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendItemList(StringBuilder json, String name, int count, int level, SplittableRandom random) {
+        json.append('"').append(name).append("\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            int weapon = random.nextInt(WEAPONS.length);
+            double index = 10 + random.nextDouble() * 5000;
+            double rate = round(random.nextGaussian() * 3, 2);
+            json.append("{\"type\":\"").append(level == 1 ? "weapon" : "skin").append('"')
+                    .append(",\"name\":\"").append(WEAPONS[weapon]).append(" | ")
+                    .append(FINISHES[random.nextInt(FINISHES.length)])
+                    .append(" (").append(WEARS[random.nextInt(WEARS.length)]).append(")\"")
+                    .append(",\"level\":").append(level)
+                    .append(",\"typeVal\":\"").append(TYPE_VALS[weapon]).append('"')
+                    .append(",\"index\":").append(round(index, 2))
+                    .append(",\"riseFallRate\":").append(rate)
+                    .append(",\"riseFallDiff\":").append(round(index * rate / 100, 2))
+                    .append('}');
+        }
+        json.append(']');
+    }
+
+    private static double round(double value, int scale) {
+        double factor = Math.pow(10, scale);
+        return Math.round(value * factor) / factor;
+    }
+
+    /**
+     * 将各规模的数据写入目录，用法: FixtureGenerator [输出目录]
+     */
+    public static void main(String[] args) throws IOException {
+        Path dir = Paths.get(args.length > 0 ? args[0] : "fixtures");
+        Files.createDirectories(dir);
+        for (FixtureSize size : FixtureSize.values()) {
+            Files.write(dir.resolve(Fixtures.fileName(Fixtures.ITEM_BLOCK, size.getName())), itemBlock(size));
+            Files.write(dir.resolve(Fixtures.fileName(Fixtures.STATISTICS, size.getName())), statistics(size));
+        }
+        System.out.println("已生成基准测试数据: " + dir.toAbsolutePath());
+    }
+}
@@ -0,0 +1,51 @@
+package com.gzy.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 录制上游接口的真实响应，作为基准测试数据
+ * <p>
+ * 用法: FixtureRecorder [输出目录] [规模名称]，默认写入 fixtures/item-block-recorded.json 和
+ * fixtures/statistics-recorded.json，运行基准测试时通过 -p size=recorded 选用。
+ */
+public final class FixtureRecorder {
+
+    private static final Map<String, String> API_URLS = Map.of(
+            Fixtures.ITEM_BLOCK, "https://sdt-api.ok-skins.com/index/item-block/v1/summary",
+            Fixtures.STATISTICS, "https://sdt-api.ok-skins.com/index/statistics/v1/summary");
+
+    private FixtureRecorder() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path dir = Paths.get(args.length > 0 ? args[0] : "fixtures");
+        String size = args.length > 1 ? args[1] : "recorded";
+        Files.createDirectories(dir);
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        for (Map.Entry<String, String> api : API_URLS.entrySet()) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(api.getValue() + "?timestamp=" + System.currentTimeMillis()))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200 || response.body().length == 0) {
+                throw new IOException("录制 " + api.getKey() + " 失败: 状态码=" + response.statusCode());
+            }
+            Path file = dir.resolve(Fixtures.fileName(api.getKey(), size));
+            Files.write(file, response.body());
+            System.out.println("已录制 " + file.toAbsolutePath() + " (" + response.body().length + " 字节)");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.gzy.benchmark;
+
+/**
+ * 生成数据的规模
+ * <p>
+ * small 接近当前上游响应，medium / large 用于观察响应继续增长时解析耗时和分配量的变化。
+ */
+public enum FixtureSize {
+
+    SMALL("small", 30, 10, 365),
+    MEDIUM("medium", 300, 50, 3 * 365),
+    LARGE("large", 3000, 200, 10 * 365);
+
+    private final String name;
+    // 每个分类 defaultList 的物品数
+    private final int defaultListSize;
+    // 每个分类 topList / bottomList 的物品数
+    private final int rankListSize;
+    // historyMarketIndexList 的点数（每天一个）
+    private final int historyPoints;
+
+    FixtureSize(String name, int defaultListSize, int rankListSize, int historyPoints) {
+        this.name = name;
+        this.defaultListSize = defaultListSize;
+        this.rankListSize = rankListSize;
+        this.historyPoints = historyPoints;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDefaultListSize() {
+        return defaultListSize;
+    }
+
+    public int getRankListSize() {
+        return rankListSize;
+    }
+
+    public int getHistoryPoints() {
+        return historyPoints;
+    }
+
+    public static FixtureSize of(String name) {
+        for (FixtureSize size : values()) {
+            if (size.name.equals(name)) {
+                return size;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,53 @@
+package com.gzy.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * 基准测试数据加载
+ * <p>
+ * 设置了 -Dbench.fixtures.dir 且目录下存在 {source}-{size}.json 时使用该文件（如 FixtureRecorder 录制的真实响应），
+ * 否则按规模由 FixtureGenerator 生成。
+ */
+public final class Fixtures {
+
+    public static final String ITEM_BLOCK = "item-block";
+    public static final String STATISTICS = "statistics";
+
+    public static final String DIR_PROPERTY = "bench.fixtures.dir";
+
+    private Fixtures() {
+    }
+
+    public static byte[] load(String source, String size) {
+        String dir = System.getProperty(DIR_PROPERTY);
+        if (dir != null && !dir.isBlank()) {
+            Path file = Paths.get(dir).resolve(fileName(source, size));
+            if (Files.isRegularFile(file)) {
+                try {
+                    return Files.readAllBytes(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("读取基准测试数据失败: " + file, e);
+                }
+            }
+        }
+
+        FixtureSize fixtureSize = FixtureSize.of(size);
+        if (fixtureSize == null) {
+            throw new IllegalArgumentException("找不到基准测试数据 " + fileName(source, size)
+                    + "，请通过 -D" + DIR_PROPERTY + " 指定包含该文件的目录");
+        }
+        return switch (source) {
+            case ITEM_BLOCK -> FixtureGenerator.itemBlock(fixtureSize);
+            case STATISTICS -> FixtureGenerator.statistics(fixtureSize);
+            default -> throw new IllegalArgumentException("未知的数据源: " + source);
+        };
+    }
+
+    public static String fileName(String source, String size) {
+        return source + "-" + size + ".json";
+    }
+}
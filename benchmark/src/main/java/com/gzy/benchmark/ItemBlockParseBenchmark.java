@@ -0,0 +1,74 @@
+package com.gzy.benchmark;
+
+import com.gzy.crawler.ApiResponse;
+import com.gzy.crawler.ItemBlockResponseParser;
+import com.gzy.entity.ItemBlock;
+import com.gzy.entity.ItemBlockData;
+import com.gzy.util.ContentHash;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ItemBlock响应解析基准测试
+ * <p>
+ * parse 只测响应字节到 ItemBlockData 的流式绑定；toEntity 与 ItemBlockCrawler 入库前的处理一致，
+ * 额外包含构建 ItemBlock 和计算内容哈希。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ItemBlockParseBenchmark {
+
+    @Param({"small", "medium", "large"})
+    private String size;
+
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        body = Fixtures.load(Fixtures.ITEM_BLOCK, size);
+        ApiResponse<ItemBlockData> response = ItemBlockResponseParser.parse(body);
+        if (!response.isSucceeded() || response.getData() == null) {
+            throw new IllegalStateException("基准测试数据无法解析: " + Fixtures.fileName(Fixtures.ITEM_BLOCK, size));
+        }
+    }
+
+    @Benchmark
+    public ApiResponse<ItemBlockData> parse() {
+        return ItemBlockResponseParser.parse(body);
+    }
+
+    @Benchmark
+    public ItemBlock toEntity() {
+        ApiResponse<ItemBlockData> response = ItemBlockResponseParser.parse(body);
+        ItemBlock itemBlock = ItemBlock.builder()
+                .createTime(LocalDateTime.now())
+                .success(response.getSuccess())
+                .errorCode(response.getErrorCode())
+                .errorMsg(response.getErrorMsg())
+                .errorData(response.getErrorData())
+                .errorCodeStr(response.getErrorCodeStr())
+                .data(response.isSucceeded() ? response.getData() : null)
+                .build();
+        if (itemBlock.getData() != null) {
+            itemBlock.setContentHash(ContentHash.of(itemBlock.getData()));
+        }
+        return itemBlock;
+    }
+}
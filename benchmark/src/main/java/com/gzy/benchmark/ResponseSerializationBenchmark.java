@@ -0,0 +1,101 @@
+package com.gzy.benchmark;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gzy.crawler.ItemBlockResponseParser;
+import com.gzy.crawler.StatisticsResponseParser;
+import com.gzy.entity.ItemBlock;
+import com.gzy.entity.Statistics;
+import com.gzy.service.Fastjson2ResponseSerializer;
+import com.gzy.service.JacksonResponseSerializer;
+import com.gzy.service.ResponseSerializer;
+import com.gzy.util.Gzip;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 快照接口响应序列化基准测试
+ * <p>
+ * 响应体与 /api/home 相同（最近10个ItemBlock和最新的Statistics）。serialize 和 serializeAndGzip
+ * 对应未使用 ResponseBodyCache 时每个请求的开销；使用缓存后每个快照版本只发生一次，命中的请求直接写出缓存的字节。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ResponseSerializationBenchmark {
+
+    // 与 HomeViewService 返回的最近快照数一致
+    private static final int RECENT_ITEM_BLOCKS = 10;
+
+    @Param({"jackson", "fastjson2"})
+    private String serializer;
+
+    @Param({"small", "medium", "large"})
+    private String size;
+
+    private ResponseSerializer responseSerializer;
+    private Map<String, Object> body;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        responseSerializer = switch (serializer) {
+            // 与Spring Boot自动配置的ObjectMapper一致：注册Java时间模块，时间输出为ISO字符串
+            case "jackson" -> new JacksonResponseSerializer(JsonMapper.builder()
+                    .addModule(new JavaTimeModule())
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                    .build());
+            case "fastjson2" -> new Fastjson2ResponseSerializer();
+            default -> throw new IllegalArgumentException("未知的序列化器: " + serializer);
+        };
+
+        byte[] itemBlockBody = Fixtures.load(Fixtures.ITEM_BLOCK, size);
+        LocalDateTime now = LocalDateTime.now();
+        List<ItemBlock> itemBlocks = new ArrayList<>(RECENT_ITEM_BLOCKS);
+        for (int i = 0; i < RECENT_ITEM_BLOCKS; i++) {
+            itemBlocks.add(ItemBlock.builder()
+                    .id(String.format("%024x", i))
+                    .createTime(now.minusSeconds(30L * i))
+                    .success(true)
+                    .errorCode(0)
+                    .data(ItemBlockResponseParser.parse(itemBlockBody).getData())
+                    .build());
+        }
+        Statistics statistics = StatisticsResponseParser.parse(Fixtures.load(Fixtures.STATISTICS, size)).getData();
+        statistics.setCreateTime(now);
+
+        body = new HashMap<>();
+        body.put("itemBlocks", itemBlocks);
+        body.put("statistics", statistics);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return responseSerializer.serialize(body);
+    }
+
+    @Benchmark
+    public byte[] serializeAndGzip() {
+        return Gzip.compress(responseSerializer.serialize(body));
+    }
+}
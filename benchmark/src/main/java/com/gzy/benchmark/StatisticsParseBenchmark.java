@@ -0,0 +1,67 @@
+package com.gzy.benchmark;
+
+import com.gzy.crawler.ApiResponse;
+import com.gzy.crawler.StatisticsResponseParser;
+import com.gzy.entity.Statistics;
+import com.gzy.util.ContentHash;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steam统计响应解析基准测试
+ * <p>
+ * parse 只测响应字节到 Statistics 的流式绑定；toEntity 与 StatisticsCrawler 入库前的处理一致，
+ * 额外包含计算内容哈希和设置创建时间。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class StatisticsParseBenchmark {
+
+    @Param({"small", "medium", "large"})
+    private String size;
+
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        body = Fixtures.load(Fixtures.STATISTICS, size);
+        ApiResponse<Statistics> response = StatisticsResponseParser.parse(body);
+        if (!response.isSucceeded() || response.getData() == null) {
+            throw new IllegalStateException("基准测试数据无法解析: " + Fixtures.fileName(Fixtures.STATISTICS, size));
+        }
+    }
+
+    @Benchmark
+    public ApiResponse<Statistics> parse() {
+        return StatisticsResponseParser.parse(body);
+    }
+
+    @Benchmark
+    public Statistics toEntity() {
+        ApiResponse<Statistics> response = StatisticsResponseParser.parse(body);
+        Statistics summary = response.isSucceeded() ? response.getData() : null;
+        if (summary == null) {
+            return null;
+        }
+        summary.setContentHash(ContentHash.of(summary));
+        summary.setCreateTime(LocalDateTime.now());
+        return summary;
+    }
+}